@@ -0,0 +1,59 @@
+package com.areeba.cms.cmsmircoservice.cards.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.CardResponse;
+import com.areeba.cms.cmsmicroservice.type.CardStatus;
+import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.utils.AttributeEncryptor;
+import com.areeba.cms.cmsmircoservice.utils.AttributeEncryptorBenchmark;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a card into its API response.
+ * <p>{@code toResponse} is the full read path minus the query: the mask comes from the stored last four
+ * digits and the PAN is never decrypted. {@code decryptAndMap} adds the PAN decryption every load paid
+ * before that, for comparison.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardMappingBenchmark {
+
+    private final CardServiceImpl cardService = new CardServiceImpl(null, null, null, null);
+    private final AttributeEncryptor attributeEncryptor = new AttributeEncryptor();
+    private Card card;
+    private String ciphertext;
+
+    @Setup
+    public void setUp() {
+        AttributeEncryptorBenchmark.installEncryptor();
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(3));
+        card.setCardNumber("4111111111111111");
+        ciphertext = attributeEncryptor.convertToDatabaseColumn(card.getCardNumber());
+    }
+
+    @Benchmark
+    public CardResponse toResponse() {
+        return cardService.toResponse(card);
+    }
+
+    @Benchmark
+    public CardResponse decryptAndMap() {
+        card.setCardNumber(attributeEncryptor.convertToEntityAttribute(ciphertext));
+        return cardService.toResponse(card);
+    }
+}
@@ -0,0 +1,52 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
+import com.areeba.cms.cmsmicroservice.type.TransactionType;
+import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.type.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a persisted {@link Transaction} to its API response, paid once per
+ * single transaction and once per item of a batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionMappingBenchmark {
+
+    private final TransactionServiceImpl transactionService = new TransactionServiceImpl(null, null, null, null, null, new SimpleMeterRegistry());
+    private Transaction transaction;
+
+    @Setup
+    public void setUp() {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setAccount(account);
+        transaction.setCard(card);
+        transaction.setTransactionAmount(new BigDecimal("125.40"));
+        transaction.setTransactionType(TransactionType.D);
+        transaction.setTransactionDate(Instant.now());
+        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
+    }
+
+    @Benchmark
+    public TransactionResponse toResponse() {
+        return transactionService.toResponse(transaction);
+    }
+}
@@ -0,0 +1,87 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+import com.areeba.cms.cmsmircoservice.config.CryptoConfig;
+import com.areeba.cms.cmsmircoservice.config.CryptoProperties;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.encrypt.AesBytesEncryptor;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * PAN encryption cost as paid by JPA on every card write ({@code convertToDatabaseColumn})
+ * and every card load ({@code convertToEntityAttribute}).
+ * <p>Uses the same {@link CryptoConfig} wiring as the application, with a fixed benchmark key.
+ * The {@code springAes*} benchmarks run the previous {@code AesBytesEncryptor} + Base64 path on the
+ * same key for comparison; the {@code *Contended} variants run 8 threads against one instance.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributeEncryptorBenchmark {
+
+    static final String PAN = "4111111111111111";
+    static final String PASSWORD = "benchmark-password";
+    static final String SALT_HEX = "5c0744940b5c369b";
+
+    private AttributeEncryptor attributeEncryptor;
+    private AesBytesEncryptor springAes;
+    private String ciphertext;
+
+    /**
+     * Wires {@link EncryptorHolder} the way the application context does, with a fixed benchmark key.
+     */
+    public static void installEncryptor() {
+        CryptoProperties cryptoProperties = new CryptoProperties();
+        cryptoProperties.setPassword(PASSWORD);
+        cryptoProperties.setSaltHex(SALT_HEX);
+        new EncryptorHolder(new CryptoConfig().fieldEncryptor(cryptoProperties));
+    }
+
+    @Setup
+    public void setUp() {
+        installEncryptor();
+        attributeEncryptor = new AttributeEncryptor();
+        springAes = new AesBytesEncryptor(PASSWORD, SALT_HEX, KeyGenerators.secureRandom(12),
+                AesBytesEncryptor.CipherAlgorithm.GCM);
+        ciphertext = attributeEncryptor.convertToDatabaseColumn(PAN);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return attributeEncryptor.convertToDatabaseColumn(PAN);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return attributeEncryptor.convertToEntityAttribute(ciphertext);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String decryptContended() {
+        return attributeEncryptor.convertToEntityAttribute(ciphertext);
+    }
+
+    @Benchmark
+    public String springAesEncrypt() {
+        return Base64.getEncoder().encodeToString(springAes.encrypt(PAN.getBytes(UTF_8)));
+    }
+
+    @Benchmark
+    public String springAesDecrypt() {
+        return new String(springAes.decrypt(Base64.getDecoder().decode(ciphertext)), UTF_8);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String springAesDecryptContended() {
+        return new String(springAes.decrypt(Base64.getDecoder().decode(ciphertext)), UTF_8);
+    }
+}
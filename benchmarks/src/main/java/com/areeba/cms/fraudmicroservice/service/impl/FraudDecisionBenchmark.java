@@ -0,0 +1,107 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudEventProperties;
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchResponse;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decision cost of {@link FraudServiceImpl}: a {@link FraudRuleChain} of the amount rule, the frequency
+ * rule on its {@link CardEventWindow} and the velocity rule on its {@link AmountVelocityWindow}, and the
+ * hand-off to {@link FraudEventRecorder}.
+ * <p>The repository is an in-memory stand-in whose batch insert does nothing, so no database is
+ * involved. Requests are spread over {@code cards} cards and two hours of event time, which mixes
+ * approvals with amount, frequency and velocity rejections.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudDecisionBenchmark {
+
+    private static final int REQUESTS = 1 << 14;
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"1000", "100000"})
+    public int cards;
+
+    private FraudServiceImpl fraudService;
+    private FraudCheckRequest[] requests;
+    private FraudCheckBatchRequest batch;
+
+    @Setup
+    public void setUp() {
+        Duration interval = Duration.ofHours(1);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FraudRepository fraudRepository = (FraudRepository) Proxy.newProxyInstance(
+                FraudRepository.class.getClassLoader(),
+                new Class<?>[]{FraudRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("insertAll")) return null;
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        FraudEventRecorder fraudEventRecorder = new FraudEventRecorder(fraudRepository, new FraudEventProperties(), meterRegistry);
+        FraudRuleProperties ruleProperties = new FraudRuleProperties();
+        ruleProperties.setEnabled(List.of("amount", "frequency", "velocity"));
+        FraudRuleChain fraudRuleChain = new FraudRuleChain(
+                List.of(new AmountLimitRule(new BigDecimal("10000.00")), new CardFrequencyRule(interval, ruleProperties),
+                        new AmountVelocityRule(interval, ruleProperties)),
+                ruleProperties, meterRegistry);
+        fraudService = new FraudServiceImpl(fraudRuleChain, fraudEventRecorder, meterRegistry);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        UUID[] cardIds = new UUID[cards];
+        for (int i = 0; i < cards; i++) {
+            cardIds[i] = UUID.randomUUID();
+        }
+        OffsetDateTime start = OffsetDateTime.now(ZoneOffset.UTC).minusHours(2);
+        requests = new FraudCheckRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            FraudCheckRequest request = new FraudCheckRequest();
+            request.setCardId(cardIds[random.nextInt(cards)]);
+            request.setAmount(BigDecimal.valueOf(random.nextInt(1_200_000), 2));
+            request.setTimestamp(start.plusSeconds(random.nextInt(7200)));
+            requests[i] = request;
+        }
+        List<FraudCheckRequest> items = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            items.add(requests[i]);
+        }
+        batch = new FraudCheckBatchRequest();
+        batch.setRequests(items);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public FraudCheckResponse evaluate(Cursor cursor) {
+        return fraudService.evaluateTransactionService(requests[cursor.next++ & (REQUESTS - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public FraudCheckBatchResponse evaluateBatch() {
+        return fraudService.evaluateTransactionBatchService(batch);
+    }
+}
@@ -4,14 +4,20 @@ import com.areeba.cms.cmsmicroservice.controller.AccountsApi;
 import com.areeba.cms.cmsmicroservice.type.AccountCardIdsResponse;
 import com.areeba.cms.cmsmicroservice.type.AccountCreateRequest;
 import com.areeba.cms.cmsmicroservice.type.AccountResponse;
+import com.areeba.cms.cmsmicroservice.type.CardIdCursorPage;
+import com.areeba.cms.cmsmicroservice.type.TransactionPage;
 import com.areeba.cms.cmsmircoservice.accounts.service.AccountService;
 import com.areeba.cms.cmsmircoservice.cards.service.CardService;
+import com.areeba.cms.cmsmircoservice.transactions.service.TransactionHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @RestController
@@ -21,10 +27,12 @@ public class AccountsController implements AccountsApi {
 
     private final AccountService accountService;
     private final CardService cardService;
+    private final TransactionHistoryService transactionHistoryService;
 
-    public AccountsController(AccountService accountService, CardService cardService) {
+    public AccountsController(AccountService accountService, CardService cardService, TransactionHistoryService transactionHistoryService) {
         this.accountService = accountService;
         this.cardService = cardService;
+        this.transactionHistoryService = transactionHistoryService;
     }
 
     @Override
@@ -59,6 +67,14 @@ public class AccountsController implements AccountsApi {
         return ResponseEntity.ok(accountCardIdsResponse);
     }
 
+    @Override
+    public ResponseEntity<CardIdCursorPage> listCardIdsForAccountAfter(UUID id, String after, Integer size, Boolean count) {
+        log.debug("Fetching card ids for account {} after cursor", id);
+        CardIdCursorPage cardIdCursorPage = cardService.listCardIdsByAccountAfter(id, after, size, count);
+        log.info("Card ids fetched {}", id);
+        return ResponseEntity.ok(cardIdCursorPage);
+    }
+
     @Override
     public ResponseEntity<AccountResponse> updateAccountById(UUID id, AccountCreateRequest account) {
         log.debug("Updating account {}", id);
@@ -66,4 +82,19 @@ public class AccountsController implements AccountsApi {
         log.info("Updated account {}", id);
         return ResponseEntity.ok(accountResponse);
     }
+
+    @Override
+    public ResponseEntity<TransactionPage> listAccountTransactions(UUID id, OffsetDateTime from, OffsetDateTime to, String after, Integer size) {
+        log.debug("Fetching transactions for account {} from={} to={}", id, from, to);
+        TransactionPage transactionPage = transactionHistoryService.listAccountTransactions(id, from, to, after, size);
+        log.info("Transactions fetched {} count={}", id, transactionPage.getTransactions().size());
+        return ResponseEntity.ok(transactionPage);
+    }
+
+    @Override
+    public ResponseEntity<Resource> exportAccountTransactions(UUID id, OffsetDateTime from, OffsetDateTime to) {
+        log.debug("Exporting transactions for account {} from={} to={}", id, from, to);
+        Resource export = transactionHistoryService.exportAccountTransactions(id, from, to);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(export);
+    }
 }
@@ -1,19 +1,24 @@
 package com.areeba.cms.cmsmircoservice.accounts.repo;
 
+import com.areeba.cms.cmsmicroservice.type.AccountStatus;
 import com.areeba.cms.cmsmircoservice.type.Account;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository for {@link Account}.
  * <p>Includes a helper to fetch an account with a DB row lock
- * when it's about to change the balance.</p>
+ * when it's about to change the balance, and single-statement guarded updates
+ * of the balance and of the reserved amount used by authorization holds.</p>
  */
 public interface AccountRepository extends JpaRepository<Account, UUID> {
 
@@ -27,4 +32,73 @@ public interface AccountRepository extends JpaRepository<Account, UUID> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select a from Account a where a.id = :id")
     Optional<Account> findByIdForUpdate(@Param("id") UUID id);
+
+    /**
+     * Reserves {@code amount} if the account is in {@code status} and its available
+     * balance ({@code balance - reserved}) covers it. Single conditional update, no prior read.
+     *
+     * @param id     account id
+     * @param amount amount to reserve
+     * @param status required account status (normally {@code ACTIVE})
+     * @return number of rows updated; {@code 0} means not found, wrong status or insufficient funds
+     */
+    @Modifying
+    @Query("update Account a set a.reserved = a.reserved + :amount " +
+            "where a.id = :id and a.status = :status and a.balance - a.reserved >= :amount")
+    int reserve(@Param("id") UUID id, @Param("amount") BigDecimal amount, @Param("status") AccountStatus status);
+
+    /**
+     * Gives back a previously reserved amount without touching the balance.
+     *
+     * @param id     account id
+     * @param amount amount to un-reserve
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("update Account a set a.reserved = a.reserved - :amount where a.id = :id")
+    int releaseReserved(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Turns a reserved amount into a real debit: lowers both balance and reserved.
+     *
+     * @param id     account id
+     * @param amount amount previously reserved
+     * @param now    new {@code updatedAt} (bulk updates skip {@code @PreUpdate})
+     * @return number of rows updated
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.reserved = a.reserved - :amount, " +
+            "a.updatedAt = :now where a.id = :id")
+    int captureReserved(@Param("id") UUID id, @Param("amount") BigDecimal amount, @Param("now") Instant now);
+
+    /**
+     * Debits the account in one statement if it is in {@code status} and its available
+     * balance covers the amount. Replaces lock + read + dirty-checked write.
+     *
+     * @param id     account id
+     * @param amount amount to debit
+     * @param status required account status (normally {@code ACTIVE})
+     * @param now    new {@code updatedAt} (bulk updates skip {@code @PreUpdate})
+     * @return number of rows updated; {@code 0} means not found, wrong status or insufficient funds
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - :amount, a.updatedAt = :now " +
+            "where a.id = :id and a.status = :status and a.balance - a.reserved >= :amount")
+    int debitIfAvailable(@Param("id") UUID id, @Param("amount") BigDecimal amount,
+                         @Param("status") AccountStatus status, @Param("now") Instant now);
+
+    /**
+     * Credits the account in one statement if it is in {@code status}.
+     *
+     * @param id     account id
+     * @param amount amount to credit
+     * @param status required account status (normally {@code ACTIVE})
+     * @param now    new {@code updatedAt} (bulk updates skip {@code @PreUpdate})
+     * @return number of rows updated; {@code 0} means not found or wrong status
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :amount, a.updatedAt = :now " +
+            "where a.id = :id and a.status = :status")
+    int creditIfActive(@Param("id") UUID id, @Param("amount") BigDecimal amount,
+                       @Param("status") AccountStatus status, @Param("now") Instant now);
 }
@@ -4,6 +4,7 @@ import com.areeba.cms.cmsmicroservice.type.AccountCreateRequest;
 import com.areeba.cms.cmsmicroservice.type.AccountResponse;
 import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
 import com.areeba.cms.cmsmircoservice.accounts.service.AccountService;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.type.Account;
 import org.slf4j.Logger;
@@ -24,9 +25,11 @@ public class AccountServiceImpl implements AccountService {
     private static final Logger log = LoggerFactory.getLogger(AccountServiceImpl.class);
 
     private final AccountRepository accountRepository;
+    private final CardEligibilityCache cardEligibilityCache;
 
-    public AccountServiceImpl(AccountRepository accountRepository) {
+    public AccountServiceImpl(AccountRepository accountRepository, CardEligibilityCache cardEligibilityCache) {
         this.accountRepository = accountRepository;
+        this.cardEligibilityCache = cardEligibilityCache;
     }
 
     /**
@@ -110,7 +113,7 @@ public class AccountServiceImpl implements AccountService {
     }
 
     /**
-     * Deletes the account by id.
+     * Deletes the account by id; its cards go with it and are dropped from {@link CardEligibilityCache}.
      *
      * @param id account id
      * @throws ResourceNotFoundException if the account does not exist
@@ -120,5 +123,6 @@ public class AccountServiceImpl implements AccountService {
     public void deleteAccountService(UUID id) {
         requireAccount(id);
         accountRepository.deleteById(id);
+        cardEligibilityCache.evictAccount(id);
     }
 }
@@ -2,15 +2,22 @@ package com.areeba.cms.cmsmircoservice.cards.controller;
 
 import com.areeba.cms.cmsmicroservice.controller.CardsApi;
 import com.areeba.cms.cmsmicroservice.type.CardCreateRequest;
+import com.areeba.cms.cmsmicroservice.type.CardIdCursorPage;
 import com.areeba.cms.cmsmicroservice.type.CardIdPage;
 import com.areeba.cms.cmsmicroservice.type.CardResponse;
+import com.areeba.cms.cmsmicroservice.type.CardSearchRequest;
+import com.areeba.cms.cmsmicroservice.type.TransactionPage;
 import com.areeba.cms.cmsmircoservice.cards.service.CardService;
+import com.areeba.cms.cmsmircoservice.transactions.service.TransactionHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @RestController
@@ -19,9 +26,11 @@ public class CardsController implements CardsApi {
     private static final Logger log = LoggerFactory.getLogger(CardsController.class);
 
     private final CardService cardService;
+    private final TransactionHistoryService transactionHistoryService;
 
-    public CardsController(CardService cardService) {
+    public CardsController(CardService cardService, TransactionHistoryService transactionHistoryService) {
         this.cardService = cardService;
+        this.transactionHistoryService = transactionHistoryService;
     }
 
     @Override
@@ -35,7 +44,7 @@ public class CardsController implements CardsApi {
 
     @Override
     public ResponseEntity<CardResponse> createCard(CardCreateRequest card) {
-        log.debug("Creating card {}", card);
+        log.debug("Creating card for account {}", card.getAccountId());
         CardResponse cardResponse = cardService.createCardService(card);
         log.info("Card created id={}", cardResponse.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(cardResponse);
@@ -58,10 +67,41 @@ public class CardsController implements CardsApi {
     }
 
     @Override
-    public ResponseEntity<CardIdPage> listCardIds(Integer page, Integer size) {
-        log.debug("Listing all cards");
-        CardIdPage cardIdPage = cardService.listCardIds(page, size);
+    public ResponseEntity<CardResponse> findCardByNumber(CardSearchRequest search) {
+        log.debug("Searching card by PAN");
+        CardResponse cardResponse = cardService.findCardByNumberService(search.getCardNumber());
+        log.info("Card found {}", cardResponse.getId());
+        return ResponseEntity.ok(cardResponse);
+    }
+
+    @Override
+    public ResponseEntity<CardIdPage> listCardIds(Integer page, Integer size, String binFrom, String binTo) {
+        log.debug("Listing all cards, BIN range {}..{}", binFrom, binTo);
+        CardIdPage cardIdPage = cardService.listCardIds(page, size, binFrom, binTo);
         log.info("Cards listed");
         return ResponseEntity.ok(cardIdPage);
     }
+
+    @Override
+    public ResponseEntity<CardIdCursorPage> listCardIdsAfter(String after, Integer size, Boolean count) {
+        log.debug("Listing all cards after cursor");
+        CardIdCursorPage cardIdCursorPage = cardService.listCardIdsAfter(after, size, count);
+        log.info("Cards listed");
+        return ResponseEntity.ok(cardIdCursorPage);
+    }
+
+    @Override
+    public ResponseEntity<TransactionPage> listCardTransactions(UUID id, OffsetDateTime from, OffsetDateTime to, String after, Integer size) {
+        log.debug("Fetching transactions for card {} from={} to={}", id, from, to);
+        TransactionPage transactionPage = transactionHistoryService.listCardTransactions(id, from, to, after, size);
+        log.info("Transactions fetched {} count={}", id, transactionPage.getTransactions().size());
+        return ResponseEntity.ok(transactionPage);
+    }
+
+    @Override
+    public ResponseEntity<Resource> exportCardTransactions(UUID id, OffsetDateTime from, OffsetDateTime to) {
+        log.debug("Exporting transactions for card {} from={} to={}", id, from, to);
+        Resource export = transactionHistoryService.exportCardTransactions(id, from, to);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(export);
+    }
 }
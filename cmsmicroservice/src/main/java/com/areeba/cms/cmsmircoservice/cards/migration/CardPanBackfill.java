@@ -0,0 +1,95 @@
+package com.areeba.cms.cmsmircoservice.cards.migration;
+
+import com.areeba.cms.cmsmircoservice.utils.FieldEncryptor;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Base of the migrations that fill new {@code cards} columns derived from the PAN.
+ * <p>The PAN only exists encrypted, so this runs in Java: cards whose first column is still {@code null}
+ * are read in id order, decrypted and updated in batches of {@value #BATCH_SIZE}, each batch committed
+ * on its own so a large table never turns into one long-running transaction.
+ * Spring Boot hands every {@code JavaMigration} bean to Flyway.</p>
+ */
+abstract class CardPanBackfill extends BaseJavaMigration {
+
+    static final int BATCH_SIZE = 500;
+
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final FieldEncryptor fieldEncryptor;
+
+    CardPanBackfill(FieldEncryptor fieldEncryptor) {
+        this.fieldEncryptor = fieldEncryptor;
+    }
+
+    /**
+     * @return columns to fill; the first one must be non-null once filled
+     */
+    abstract List<String> columns();
+
+    /**
+     * @param pan decrypted PAN
+     * @return values of {@link #columns()}, in order
+     */
+    abstract Object[] values(String pan);
+
+    /**
+     * Commits per batch, so it cannot run inside Flyway's migration transaction.
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        List<String> columns = columns();
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, card_number from cards where " + columns.get(0) + " is null and id > ? order by id limit " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "update cards set " + String.join(" = ?, ", columns) + " = ? where id = ?")) {
+            UUID after = new UUID(0, 0); // Postgres orders uuids bytewise, so this sorts first
+            int total = 0;
+            int batch;
+            do {
+                batch = 0;
+                select.setObject(1, after);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        after = rs.getObject(1, UUID.class);
+                        Object[] values = values(fieldEncryptor.decryptString(rs.getString(2)));
+                        for (int i = 0; i < values.length; i++) {
+                            update.setObject(i + 1, values[i]);
+                        }
+                        update.setObject(values.length + 1, after);
+                        update.addBatch();
+                        batch++;
+                    }
+                }
+                if (batch > 0) {
+                    update.executeBatch();
+                    connection.commit();
+                    total += batch;
+                    log.info("Backfilled {} for {} cards", columns, total);
+                }
+            } while (batch == BATCH_SIZE);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.areeba.cms.cmsmircoservice.cards.migration;
+
+import com.areeba.cms.cmsmircoservice.utils.FieldEncryptor;
+import com.areeba.cms.cmsmircoservice.utils.PanBlindIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills {@code cards.pan_hash} ({@link PanBlindIndex}) for cards created before the blind index existed.
+ */
+@Component
+public class V6__Backfill_card_pan_hash extends CardPanBackfill {
+
+    private final PanBlindIndex panBlindIndex;
+
+    public V6__Backfill_card_pan_hash(FieldEncryptor fieldEncryptor, PanBlindIndex panBlindIndex) {
+        super(fieldEncryptor);
+        this.panBlindIndex = panBlindIndex;
+    }
+
+    @Override
+    List<String> columns() {
+        return List.of("pan_hash");
+    }
+
+    @Override
+    Object[] values(String pan) {
+        return new Object[]{panBlindIndex.hash(pan)};
+    }
+}
@@ -0,0 +1,28 @@
+package com.areeba.cms.cmsmircoservice.cards.migration;
+
+import com.areeba.cms.cmsmircoservice.utils.FieldEncryptor;
+import com.areeba.cms.cmsmircoservice.utils.PanFormat;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Fills {@code cards.last4} and {@code cards.bin} ({@link PanFormat}) for cards created before those columns existed.
+ */
+@Component
+public class V9__Backfill_card_last4_bin extends CardPanBackfill {
+
+    public V9__Backfill_card_last4_bin(FieldEncryptor fieldEncryptor) {
+        super(fieldEncryptor);
+    }
+
+    @Override
+    List<String> columns() {
+        return List.of("last4", "bin");
+    }
+
+    @Override
+    Object[] values(String pan) {
+        return new Object[]{PanFormat.last4(pan), PanFormat.bin(pan)};
+    }
+}
@@ -0,0 +1,20 @@
+package com.areeba.cms.cmsmircoservice.cards.repo;
+
+import com.areeba.cms.cmsmicroservice.type.CardStatus;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Columns of a card that transaction authorization checks.
+ * <p>Read by {@link CardRepository#findEligibilityById(UUID)} instead of the {@code Card} entity, so the
+ * authorization path neither hydrates the entity (PAN ciphertext, blind index) nor registers it in the
+ * persistence context.</p>
+ *
+ * @param id        card identifier
+ * @param status    card status
+ * @param expiry    expiry date
+ * @param accountId owning account
+ */
+public record CardEligibility(UUID id, CardStatus status, LocalDate expiry, UUID accountId) {
+}
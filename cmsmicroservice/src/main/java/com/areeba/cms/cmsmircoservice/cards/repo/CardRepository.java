@@ -1,20 +1,59 @@
 package com.areeba.cms.cmsmircoservice.cards.repo;
 
 import com.areeba.cms.cmsmircoservice.type.Card;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository for {@link Card}.
- * <p>Exposes paged projections of card IDs, optionally filtered by account.</p>
+ * <p>Exposes paged (offset or keyset) projections of card IDs, optionally filtered by account or BIN range, and lookups
+ * by PAN blind index, and the {@link CardEligibility} projection read by transaction authorization.</p>
  */
 public interface CardRepository extends JpaRepository<Card, UUID> {
 
+    /**
+     * Finds the card whose PAN has the given blind index (unique index lookup).
+     *
+     * @param panHash value of {@code PanBlindIndex#hash}
+     * @return the card, if any
+     */
+    Optional<Card> findByPanHash(String panHash);
+
+    /**
+     * @param panHash value of {@code PanBlindIndex#hash}
+     * @return whether a card with that PAN exists
+     */
+    boolean existsByPanHash(String panHash);
+
+    /**
+     * Reads only the columns authorization checks; {@code account.id} is the foreign key, no join.
+     *
+     * @param id card identifier
+     * @return the card's eligibility columns, if the card exists
+     */
+    @Query("select new com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility(c.id, c.status, c.expiry, c.account.id) "
+            + "from Card c where c.id = :id")
+    Optional<CardEligibility> findEligibilityById(@Param("id") UUID id);
+
+    /**
+     * Batch variant of {@link #findEligibilityById(UUID)}; missing cards are simply absent.
+     *
+     * @param ids card identifiers
+     * @return eligibility columns of the cards that exist, in no particular order
+     */
+    @Query("select new com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility(c.id, c.status, c.expiry, c.account.id) "
+            + "from Card c where c.id in :ids")
+    List<CardEligibility> findEligibilityByIdIn(@Param("ids") Collection<UUID> ids);
+
     /**
      * Returns a page of card IDs.
      * <p>Use the {@code Pageable} to control page size and sort.</p>
@@ -25,6 +64,44 @@ public interface CardRepository extends JpaRepository<Card, UUID> {
     @Query("select c.id from Card c")
     Page<UUID> findAllIds(Pageable pageable);
 
+    /**
+     * Returns a page of card IDs whose BIN is in {@code [from, toExclusive)} (column collation is {@code "C"}).
+     *
+     * @param from        lowest BIN, inclusive
+     * @param toExclusive upper bound, exclusive
+     * @param pageable    paging/sorting options
+     * @return page of UUIDs
+     */
+    @Query("select c.id from Card c where c.bin >= :from and c.bin < :toExclusive")
+    Page<UUID> findIdsByBinRange(@Param("from") String from, @Param("toExclusive") String toExclusive, Pageable pageable);
+
+    /**
+     * Keyset page of card IDs: the first {@code limit} IDs after {@code after}, in index order.
+     *
+     * @param after last ID of the previous page ({@code KeysetCursor.FIRST_ID} for the first page)
+     * @param limit page size
+     * @return card IDs in ascending order
+     */
+    @Query("select c.id from Card c where c.id > :after order by c.id")
+    List<UUID> findIdsAfter(@Param("after") UUID after, Limit limit);
+
+    /**
+     * Keyset page of an account's card IDs, read from the {@code (account_id, id)} index.
+     *
+     * @param accountId account identifier
+     * @param after     last ID of the previous page ({@code KeysetCursor.FIRST_ID} for the first page)
+     * @param limit     page size
+     * @return card IDs in ascending order
+     */
+    @Query("select c.id from Card c where c.account.id = :accountId and c.id > :after order by c.id")
+    List<UUID> findCardIdsByAccountIdAfter(@Param("accountId") UUID accountId, @Param("after") UUID after, Limit limit);
+
+    /**
+     * @param accountId account identifier
+     * @return number of cards of the account
+     */
+    long countByAccountId(UUID accountId);
+
     /**
      * Returns a page of card IDs that belong to the given account.
      *
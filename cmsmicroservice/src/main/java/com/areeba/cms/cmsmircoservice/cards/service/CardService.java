@@ -2,8 +2,10 @@ package com.areeba.cms.cmsmircoservice.cards.service;
 
 import com.areeba.cms.cmsmicroservice.type.AccountCardIdsResponse;
 import com.areeba.cms.cmsmicroservice.type.CardCreateRequest;
+import com.areeba.cms.cmsmicroservice.type.CardIdCursorPage;
 import com.areeba.cms.cmsmicroservice.type.CardIdPage;
 import com.areeba.cms.cmsmicroservice.type.CardResponse;
+import com.areeba.cms.cmsmircoservice.exception.ResourceConflictException;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 
 import java.util.UUID;
@@ -18,6 +20,7 @@ public interface CardService {
      *
      * @param req account id, PAN, expiry
      * @return created card view
+     * @throws ResourceConflictException if a card with that PAN already exists
      */
     CardResponse createCardService(CardCreateRequest req);
 
@@ -47,14 +50,49 @@ public interface CardService {
     CardResponse getCardService(UUID id);
 
     /**
-     * Lists card IDs across the system (paged).
+     * Returns card details (masked PAN) for a PAN, resolved through its blind index.
+     *
+     * @param cardNumber raw PAN
+     * @return card view
+     * @throws ResourceNotFoundException if no card has that PAN
+     */
+    CardResponse findCardByNumberService(String cardNumber);
+
+    /**
+     * Lists card IDs across the system (paged), optionally restricted to a BIN range.
      * <p>Service may cap the page size</p>
      *
-     * @param page zero-based page index
-     * @param size requested page size
+     * @param page    zero-based page index
+     * @param size    requested page size
+     * @param binFrom lowest BIN prefix (inclusive), or {@code null} for no lower bound
+     * @param binTo   highest BIN prefix (inclusive), or {@code null} for no upper bound
      * @return page of card IDs with paging metadata
      */
-    CardIdPage listCardIds(int page, int size);
+    CardIdPage listCardIds(int page, int size, String binFrom, String binTo);
+
+    /**
+     * Lists card IDs across the system with keyset pagination.
+     * <p>Service may cap the page size</p>
+     *
+     * @param after cursor returned as {@code nextCursor} by the previous page, or {@code null}
+     * @param size  requested page size
+     * @param count whether to also count all cards
+     * @return card IDs and the cursor of the next page
+     */
+    CardIdCursorPage listCardIdsAfter(String after, int size, boolean count);
+
+    /**
+     * Lists card IDs for a specific account with keyset pagination.
+     * <p>Service may cap the page size</p>
+     *
+     * @param accountId account id
+     * @param after     cursor returned as {@code nextCursor} by the previous page, or {@code null}
+     * @param size      requested page size
+     * @param count     whether to also count the account's cards
+     * @return card IDs and the cursor of the next page
+     * @throws ResourceNotFoundException if the account doesn’t exist
+     */
+    CardIdCursorPage listCardIdsByAccountAfter(UUID accountId, String after, int size, boolean count);
 
     /**
      * Lists card IDs for a specific account (paged).
@@ -0,0 +1,234 @@
+package com.areeba.cms.cmsmircoservice.cards.service.impl;
+
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.config.CardProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded in-process cache of {@link CardEligibility}, read by transaction authorization.
+ * <p>Entries live for {@code cms.areeba.cards.eligibility-cache.ttl}. Past {@code max-size} the cache
+ * first drops expired entries and then arbitrary ones (hash order) down to 90% of the bound. Missing
+ * cards are not cached.</p>
+ * <p>Card writes and account deletes invalidate synchronously: the entries are dropped at once and
+ * again when the writing transaction completes, so a read racing the write cannot cache the old row.
+ * A load only stores its result if no invalidation happened while it ran. With {@code broadcast} on,
+ * each invalidation is also sent with {@code pg_notify} on {@value #CHANNEL}; Postgres delivers it at
+ * commit to every instance's {@link CardEligibilityListener}.</p>
+ * Metrics:
+ * <ul>
+ *   <li>{@code cms.cards.eligibility.cache.requests} — lookups, tag {@code result}: {@code hit} or {@code miss}.</li>
+ *   <li>{@code cms.cards.eligibility.cache.size} — cached cards.</li>
+ * </ul>
+ */
+@Component
+public class CardEligibilityCache {
+
+    /** Postgres notification channel; payloads are {@code card:<id>} or {@code account:<id>}. */
+    static final String CHANNEL = "cms_card_eligibility";
+
+    private static final Logger log = LoggerFactory.getLogger(CardEligibilityCache.class);
+
+    private final CardRepository cardRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final boolean broadcast;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final ReentrantLock trimming = new ReentrantLock();
+    private final Counter hits;
+    private final Counter misses;
+
+    public CardEligibilityCache(CardRepository cardRepository, JdbcTemplate jdbcTemplate, CardProperties cardProperties, MeterRegistry meterRegistry) {
+        CardProperties.EligibilityCache config = cardProperties.getEligibilityCache();
+        this.cardRepository = cardRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = config.isEnabled();
+        this.broadcast = config.isBroadcast();
+        this.maxSize = config.getMaxSize();
+        this.ttlNanos = config.getTtl().toNanos();
+        Gauge.builder("cms.cards.eligibility.cache.size", entries, Map::size)
+                .description("Cards in the eligibility cache")
+                .register(meterRegistry);
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cms.cards.eligibility.cache.requests")
+                .description("Card eligibility cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param cardId card identifier
+     * @return the card's eligibility columns, cached or read from the database
+     */
+    public Optional<CardEligibility> find(UUID cardId) {
+        if (!enabled) return cardRepository.findEligibilityById(cardId);
+        Entry entry = entries.get(cardId);
+        if (entry != null && entry.isLive(System.nanoTime())) {
+            hits.increment();
+            return Optional.of(entry.value);
+        }
+        misses.increment();
+        long epoch = invalidations.get();
+        Optional<CardEligibility> loaded = cardRepository.findEligibilityById(cardId);
+        loaded.ifPresent(value -> store(value, epoch));
+        return loaded;
+    }
+
+    /**
+     * Looks up several cards; the misses are read in one query.
+     *
+     * @param cardIds card identifiers
+     * @return eligibility columns by card id; missing cards are absent
+     */
+    public Map<UUID, CardEligibility> findAll(Collection<UUID> cardIds) {
+        Map<UUID, CardEligibility> found = new HashMap<>();
+        if (!enabled) {
+            cardRepository.findEligibilityByIdIn(cardIds).forEach(card -> found.put(card.id(), card));
+            return found;
+        }
+        long now = System.nanoTime();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID cardId : cardIds) {
+            Entry entry = entries.get(cardId);
+            if (entry != null && entry.isLive(now)) {
+                found.put(cardId, entry.value);
+            } else {
+                missing.add(cardId);
+            }
+        }
+        hits.increment(found.size());
+        if (missing.isEmpty()) return found;
+        misses.increment(missing.size());
+        long epoch = invalidations.get();
+        for (CardEligibility card : cardRepository.findEligibilityByIdIn(missing)) {
+            found.put(card.id(), card);
+            store(card, epoch);
+        }
+        return found;
+    }
+
+    /**
+     * Drops a card whose status, expiry or account changed.
+     *
+     * @param cardId card identifier
+     */
+    public void evictCard(UUID cardId) {
+        invalidate(() -> removeCard(cardId), "card:" + cardId);
+    }
+
+    /**
+     * Drops the cards of a deleted account (the database deletes them with it).
+     *
+     * @param accountId account identifier
+     */
+    public void evictAccount(UUID accountId) {
+        invalidate(() -> removeAccount(accountId), "account:" + accountId);
+    }
+
+    /**
+     * Applies an invalidation received from another instance (or echoed from this one).
+     *
+     * @param payload {@code card:<id>} or {@code account:<id>}
+     */
+    void onNotification(String payload) {
+        try {
+            int colon = payload.indexOf(':');
+            UUID id = UUID.fromString(payload.substring(colon + 1));
+            switch (payload.substring(0, colon)) {
+                case "card" -> removeCard(id);
+                case "account" -> removeAccount(id);
+                default -> throw new IllegalArgumentException(payload);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Unexpected card eligibility notification '{}', clearing the cache", payload);
+            clear();
+        }
+    }
+
+    /**
+     * Drops everything, e.g. when notifications may have been missed.
+     */
+    void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    private void invalidate(Runnable remove, String payload) {
+        if (!enabled) return;
+        remove.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove.run();
+                }
+            });
+        }
+        if (broadcast) {
+            // Sent with the writing transaction, so other instances hear of it only at commit
+            jdbcTemplate.query("select pg_notify(?, ?)", rs -> { }, CHANNEL, payload);
+        }
+    }
+
+    private void removeCard(UUID cardId) {
+        invalidations.incrementAndGet();
+        entries.remove(cardId);
+    }
+
+    private void removeAccount(UUID accountId) {
+        invalidations.incrementAndGet();
+        entries.values().removeIf(entry -> entry.value.accountId().equals(accountId));
+    }
+
+    /**
+     * Caches a loaded card unless an invalidation happened since {@code epoch}; checked inside
+     * {@code compute} so it cannot interleave with the removal of the same key.
+     */
+    private void store(CardEligibility value, long epoch) {
+        Entry entry = new Entry(value, System.nanoTime() + ttlNanos);
+        entries.compute(value.id(), (id, current) -> invalidations.get() == epoch ? entry : current);
+        if (entries.size() > maxSize) trim();
+    }
+
+    private void trim() {
+        if (!trimming.tryLock()) return;
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> !entry.isLive(now));
+            Iterator<UUID> it = entries.keySet().iterator();
+            for (int excess = entries.size() - (maxSize - maxSize / 10); excess > 0 && it.hasNext(); excess--) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            trimming.unlock();
+        }
+    }
+
+    private record Entry(CardEligibility value, long expiresAt) {
+
+        boolean isLive(long now) {
+            return expiresAt - now > 0;
+        }
+    }
+}
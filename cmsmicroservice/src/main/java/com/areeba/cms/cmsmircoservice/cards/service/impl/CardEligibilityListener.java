@@ -0,0 +1,103 @@
+package com.areeba.cms.cmsmircoservice.cards.service.impl;
+
+import com.areeba.cms.cmsmircoservice.config.CardProperties;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Receives the {@link CardEligibilityCache} invalidations of all instances through Postgres
+ * {@code LISTEN}.
+ * <p>Holds one dedicated connection, outside the pool, on a single daemon thread. Notifications sent
+ * while it is not connected are lost, so the cache is cleared whenever the connection is (re)opened;
+ * entries otherwise stale on other instances would live at most one TTL anyway.</p>
+ */
+@Component
+public class CardEligibilityListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(CardEligibilityListener.class);
+
+    private static final int POLL_MILLIS = 500;
+
+    private final CardEligibilityCache cache;
+    private final DataSourceProperties dataSourceProperties;
+    private final boolean enabled;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    public CardEligibilityListener(CardEligibilityCache cache, DataSourceProperties dataSourceProperties, CardProperties cardProperties) {
+        CardProperties.EligibilityCache config = cardProperties.getEligibilityCache();
+        this.cache = cache;
+        this.dataSourceProperties = dataSourceProperties;
+        this.enabled = config.isEnabled() && config.isBroadcast();
+        this.reconnectDelay = config.getReconnectDelay();
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        listener = new Thread(this::listen, "card-eligibility-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) return;
+        running = false;
+        listener.interrupt();
+        try {
+            listener.join(POLL_MILLIS * 4L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CardEligibilityCache.CHANNEL);
+                }
+                cache.clear();
+                log.debug("Listening for card eligibility invalidations");
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_MILLIS);
+                    if (notifications == null) continue;
+                    for (PGNotification notification : notifications) {
+                        cache.onNotification(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) return;
+                log.warn("Card eligibility listener lost its connection, retrying in {}", reconnectDelay, e);
+                cache.clear();
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException ie) {
+                    // stop() interrupts to wake us up; the loop condition decides
+                }
+            }
+        }
+    }
+}
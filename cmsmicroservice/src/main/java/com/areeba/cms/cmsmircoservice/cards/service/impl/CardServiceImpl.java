@@ -4,22 +4,29 @@ import com.areeba.cms.cmsmicroservice.type.*;
 import com.areeba.cms.cmsmircoservice.accounts.service.AccountService;
 import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
 import com.areeba.cms.cmsmircoservice.cards.service.CardService;
+import com.areeba.cms.cmsmircoservice.exception.ResourceConflictException;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.type.Account;
 import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.utils.KeysetCursor;
+import com.areeba.cms.cmsmircoservice.utils.PanBlindIndex;
+import com.areeba.cms.cmsmircoservice.utils.PanFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Card service: create, activate/deactivate, read, and list card IDs.
- * <p>Write methods run in a transaction; status/field changes are flushed by JPA dirty checking.</p>
+ * <p>Write methods run in a transaction; status/field changes are flushed by JPA dirty checking.
+ * Status changes invalidate the card in {@link CardEligibilityCache}.</p>
  * <p>Responses include a masked PAN (last 4 digits only).</p>
  */
 @Service
@@ -27,34 +34,47 @@ public class CardServiceImpl implements CardService {
 
     private static final Logger log = LoggerFactory.getLogger(CardServiceImpl.class);
 
+    /** Largest keyset page; offset pages stay capped at 50. */
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+
     private final CardRepository cardRepository;
     private final AccountService accountService;
+    private final PanBlindIndex panBlindIndex;
+    private final CardEligibilityCache cardEligibilityCache;
 
-    public CardServiceImpl(CardRepository cardRepository, AccountService accountService) {
+    public CardServiceImpl(CardRepository cardRepository, AccountService accountService, PanBlindIndex panBlindIndex, CardEligibilityCache cardEligibilityCache) {
         this.cardRepository = cardRepository;
         this.accountService = accountService;
+        this.panBlindIndex = panBlindIndex;
+        this.cardEligibilityCache = cardEligibilityCache;
     }
 
     /**
      * Creates a new card under the target account.
-     * <p>New cards start as {@code INACTIVE}.</p>
+     * <p>New cards start as {@code INACTIVE}. The PAN's blind index is stored next to the
+     * ciphertext; the unique index on it rejects a PAN that is already on file.</p>
      *
      * @param cardCreateRequest account id, raw PAN, expiry
      * @return created card view (masked PAN, generated id)
      * @throws ResourceNotFoundException if the account does not exist
+     * @throws ResourceConflictException if a card with that PAN already exists
      */
     @Transactional
     @Override
     public CardResponse createCardService(CardCreateRequest cardCreateRequest) {
         Account account = accountService.requireAccount(cardCreateRequest.getAccountId());
+        String panHash = panBlindIndex.hash(cardCreateRequest.getCardNumber());
+        if (cardRepository.existsByPanHash(panHash))
+            throw new ResourceConflictException("Card already exists");
         Card card = new Card();
         card.setAccount(account);
         card.setCardNumber(cardCreateRequest.getCardNumber());
+        card.setPanHash(panHash);
         card.setExpiry(cardCreateRequest.getExpiry());
         card.setStatus(CardStatus.INACTIVE);
-        log.debug("Saving card {}", card.getCardNumber());
+        log.debug("Saving card for account {}", account.getId());
         card = cardRepository.save(card);
-        log.info("Card saved {}", card.getCardNumber());
+        log.info("Card saved {}", card.getId());
         return toResponse(card);
     }
 
@@ -69,6 +89,7 @@ public class CardServiceImpl implements CardService {
     public void activateCardService(UUID id) {
         Card card = cardRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Card not found"));
         card.setStatus(CardStatus.ACTIVE);
+        cardEligibilityCache.evictCard(id);
     }
 
     /**
@@ -82,6 +103,7 @@ public class CardServiceImpl implements CardService {
     public void deactivateCardService(UUID id) {
         Card card = cardRepository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Card not found"));
         card.setStatus(CardStatus.INACTIVE);
+        cardEligibilityCache.evictCard(id);
     }
 
     /**
@@ -98,25 +120,89 @@ public class CardServiceImpl implements CardService {
         return toResponse(card);
     }
 
+    /**
+     * Finds a card by PAN with one lookup on the unique blind index; no stored PAN is decrypted
+     * to find it.
+     *
+     * @param cardNumber raw PAN
+     * @return card view (masked PAN)
+     * @throws ResourceNotFoundException if no card has that PAN
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CardResponse findCardByNumberService(String cardNumber) {
+        Card card = cardRepository.findByPanHash(panBlindIndex.hash(cardNumber))
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+        return toResponse(card);
+    }
+
     /**
      * Maps a {@link Card} entity to its API response.
-     * <p>Masking rule: show only the last 4 digits, or {@code "****"} if missing/too short.</p>
+     * <p>Masking rule: show only the last 4 digits, or {@code "****"} if missing/too short. The mask is
+     * built from the stored {@code last4}, so the PAN is never decrypted.</p>
      *
      * @param card managed entity
      * @return response DTO with masked PAN
      */
-    private CardResponse toResponse(Card card) {
-        String plain = card.getCardNumber();
-        String masked = (plain == null || plain.length() < 4) ? "****" : "**** **** **** " + plain.substring(plain.length() - 4);
+    CardResponse toResponse(Card card) {
         CardResponse cardResponse = new CardResponse();
         cardResponse.setId(card.getId());
         cardResponse.setAccountId(card.getAccount().getId());
         cardResponse.setStatus(card.getStatus());
         cardResponse.setExpiry(card.getExpiry());
-        cardResponse.setMaskedCard(masked);
+        cardResponse.setMaskedCard(PanFormat.mask(card.getLast4()));
         return cardResponse;
     }
 
+    /**
+     * Lists card IDs after a cursor, reading one row more than the page to know whether another follows.
+     * <p>Size is capped at {@code 1000}. The count is a full scan and only runs when asked for.</p>
+     *
+     * @param after cursor of the previous page, or {@code null} for the first page
+     * @param size  requested page size (server caps at 1000)
+     * @param count whether to fill {@code totalElements}
+     * @return card IDs and the next cursor
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CardIdCursorPage listCardIdsAfter(String after, int size, boolean count) {
+        int s = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        List<UUID> ids = cardRepository.findIdsAfter(KeysetCursor.decodeId(after), Limit.of(s + 1));
+        return toCursorPage(ids, s, count ? cardRepository.count() : null);
+    }
+
+    /**
+     * Lists an account's card IDs after a cursor, from the {@code (account_id, id)} index.
+     * <p>Size is capped at {@code 1000}. The count only runs when asked for.</p>
+     *
+     * @param accountId account id
+     * @param after     cursor of the previous page, or {@code null} for the first page
+     * @param size      requested page size (server caps at 1000)
+     * @param count     whether to fill {@code totalElements}
+     * @return card IDs and the next cursor
+     * @throws ResourceNotFoundException if the account does not exist
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CardIdCursorPage listCardIdsByAccountAfter(UUID accountId, String after, int size, boolean count) {
+        accountService.requireAccount(accountId);
+        int s = Math.min(Math.max(size, 1), MAX_CURSOR_PAGE_SIZE);
+        List<UUID> ids = cardRepository.findCardIdsByAccountIdAfter(accountId, KeysetCursor.decodeId(after), Limit.of(s + 1));
+        return toCursorPage(ids, s, count ? cardRepository.countByAccountId(accountId) : null);
+    }
+
+    private static CardIdCursorPage toCursorPage(List<UUID> ids, int size, Long total) {
+        boolean hasNext = ids.size() > size;
+        List<UUID> page = hasNext ? ids.subList(0, size) : ids;
+        CardIdCursorPage cardIdCursorPage = new CardIdCursorPage();
+        cardIdCursorPage.setCardIds(page);
+        cardIdCursorPage.setSize(size);
+        cardIdCursorPage.setHasNext(hasNext);
+        if (hasNext) cardIdCursorPage.setNextCursor(KeysetCursor.encode(page.get(size - 1)));
+        cardIdCursorPage.setTotalElements(total);
+        return cardIdCursorPage;
+    }
+
     /**
      * Lists card IDs for a specific account (paged).
      * <p>Page index is normalized to {@code >= 0}; size is capped at {@code 50}.</p>
@@ -146,19 +232,27 @@ public class CardServiceImpl implements CardService {
     }
 
     /**
-     * Lists all card IDs (paged).
-     * <p>Page index is normalized to {@code >= 0}; size is capped at {@code 50}.</p>
+     * Lists all card IDs (paged), optionally restricted to a BIN range.
+     * <p>Page index is normalized to {@code >= 0}; size is capped at {@code 50}.
+     * Both BIN bounds are inclusive prefixes, so {@code 411111..411111} matches BINs {@code 411111} and
+     * {@code 41111100..41111199}. The upper bound becomes {@code binTo + ":"}, as {@code ':'} sorts right
+     * after {@code '9'}.</p>
      *
-     * @param page zero-based page index
-     * @param size requested page size (server caps at 50)
+     * @param page   zero-based page index
+     * @param size   requested page size (server caps at 50)
+     * @param binFrom lowest BIN prefix, or {@code null}
+     * @param binTo   highest BIN prefix, or {@code null}
      * @return page of card IDs with paging metadata
      */
     @Transactional(readOnly = true)
     @Override
-    public CardIdPage listCardIds(int page, int size) {
+    public CardIdPage listCardIds(int page, int size, String binFrom, String binTo) {
         int p = Math.max(0, page);
         int s = Math.min(Math.max(size, 1), 50);
-        Page<UUID> result = cardRepository.findAllIds(PageRequest.of(p, s, Sort.by("id").ascending()));
+        PageRequest pageable = PageRequest.of(p, s, Sort.by("id").ascending());
+        Page<UUID> result = (binFrom == null && binTo == null)
+                ? cardRepository.findAllIds(pageable)
+                : cardRepository.findIdsByBinRange(binFrom == null ? "" : binFrom, (binTo == null ? "9" : binTo) + ":", pageable);
         CardIdPage cardIdPage = new CardIdPage();
         cardIdPage.setCardIds(result.getContent());
         cardIdPage.setPage(result.getNumber());
@@ -168,4 +262,4 @@ public class CardServiceImpl implements CardService {
         cardIdPage.setHasNext(result.hasNext());
         return cardIdPage;
     }
-}
\ No newline at end of file
+}
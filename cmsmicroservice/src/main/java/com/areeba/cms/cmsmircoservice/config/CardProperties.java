@@ -0,0 +1,38 @@
+package com.areeba.cms.cmsmircoservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Binds card settings under the prefix {@code cms.areeba.cards}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cms.areeba.cards")
+@Data
+public class CardProperties {
+
+    /** In-process cache of the card columns read by transaction authorization. */
+    private final EligibilityCache eligibilityCache = new EligibilityCache();
+
+    @Data
+    public static class EligibilityCache {
+
+        /** When off, every authorization reads the card row. */
+        private boolean enabled = true;
+
+        /** Max cached cards; beyond it entries are dropped to 90% of this size. */
+        private int maxSize = 100_000;
+
+        /** How long an entry is served before the card row is read again. */
+        private Duration ttl = Duration.ofSeconds(60);
+
+        /** Broadcast invalidations to other instances with Postgres {@code NOTIFY} and listen for theirs. */
+        private boolean broadcast = true;
+
+        /** Wait before the listener reconnects after losing its connection. */
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+    }
+}
@@ -7,8 +7,8 @@ import org.springframework.context.annotation.Configuration;
 /**
  * Binds crypto settings under the prefix {@code cms.areeba.crypto}.
  *
- * <p>Used by {@link CryptoConfig#bytesEncryptor(CryptoProperties)} to build the AES/GCM
- * {@code BytesEncryptor} for field-level encryption.</p>
+ * <p>Used by {@link CryptoConfig#fieldEncryptor(CryptoProperties)} to build the AES/GCM
+ * {@code FieldEncryptor} for field-level encryption, and by {@code PanBlindIndex} for the PAN lookup hash.</p>
  */
 @Configuration
 @ConfigurationProperties(prefix = "cms.areeba.crypto")
@@ -20,4 +20,7 @@ public class CryptoProperties {
 
     /** Hex-encoded salt used for key derivation; should be stable across restarts. */
     private String saltHex;
+
+    /** Secret key of the PAN blind index (HMAC); must never change once cards exist. */
+    private String indexKey;
 }
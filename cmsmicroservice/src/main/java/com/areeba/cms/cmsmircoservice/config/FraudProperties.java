@@ -0,0 +1,51 @@
+package com.areeba.cms.cmsmircoservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Binds fraud client settings under the prefix {@code cms.areeba.fraud}.
+ * <p>Connection and read timeouts are plain Feign settings
+ * ({@code spring.cloud.openfeign.client.config.fraudmicroservice.*}); the circuit breaker and
+ * bulkhead are Resilience4j instances named {@code fraud}.</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cms.areeba.fraud")
+@Data
+public class FraudProperties {
+
+    /** Decision taken when the fraud service fails, times out, or the circuit/bulkhead refuses the call. */
+    private FallbackPolicy fallback = FallbackPolicy.LOCAL_RULES;
+
+    /** Highest amount approved without a fraud check under {@code APPROVE_BELOW_THRESHOLD}. */
+    private BigDecimal fallbackThreshold = new BigDecimal("100.00");
+
+    /** Rules evaluated locally under {@code LOCAL_RULES}. */
+    private final Degraded degraded = new Degraded();
+
+    public enum FallbackPolicy {
+        /** Reject every transaction that could not be checked. */
+        REJECT,
+        /** Approve amounts up to {@code fallback-threshold}, reject the rest. */
+        APPROVE_BELOW_THRESHOLD,
+        /** Evaluate the fraud amount limit and a per-card rate check in this instance. */
+        LOCAL_RULES
+    }
+
+    @Data
+    public static class Degraded {
+
+        /** Max allowed amount; keep equal to the fraud service's {@code fraud.limit}. */
+        private BigDecimal limit = new BigDecimal("10000.00");
+
+        /** Attempts per card within {@code interval} before the next one is rejected. */
+        private int maxAttempts = 8;
+
+        /** Look-back window of the rate check; keep equal to the fraud service's {@code fraud.interval}. */
+        private Duration interval = Duration.ofHours(1);
+    }
+}
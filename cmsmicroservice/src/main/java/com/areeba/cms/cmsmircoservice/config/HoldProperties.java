@@ -0,0 +1,22 @@
+package com.areeba.cms.cmsmircoservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Binds authorization hold settings under the prefix {@code cms.areeba.holds}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cms.areeba.holds")
+@Data
+public class HoldProperties {
+
+    /** How long an open hold keeps funds reserved before the sweeper releases it. */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /** Max number of expired holds released per sweeper transaction. */
+    private int sweepBatchSize = 500;
+}
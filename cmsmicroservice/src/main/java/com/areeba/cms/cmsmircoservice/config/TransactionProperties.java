@@ -0,0 +1,74 @@
+package com.areeba.cms.cmsmircoservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Period;
+
+/**
+ * Binds transaction pipeline settings under the prefix {@code cms.areeba.transactions}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "cms.areeba.transactions")
+@Data
+public class TransactionProperties {
+
+    /** How an approved transaction is written to the account balance. */
+    private ApplyMode applyMode = ApplyMode.LOCK;
+
+    /** In-JVM per-account serialization of the balance step. */
+    private final Stripes stripes = new Stripes();
+
+    /** Streaming history exports. */
+    private final Export export = new Export();
+
+    /** Monthly partitions of the {@code transactions} table. */
+    private final Partitions partitions = new Partitions();
+
+    public enum ApplyMode {
+        /** Lock the account row, re-validate and apply via JPA dirty checking. */
+        LOCK,
+        /** Debits reserve funds before the fraud call and capture them afterwards; credits behave as {@code LOCK}. */
+        HOLD,
+        /** One conditional {@code UPDATE} per transaction; the row count decides approval. No prior read or lock. */
+        GUARDED
+    }
+
+    @Data
+    public static class Stripes {
+
+        /** When off, requests go straight to the database row lock. */
+        private boolean enabled = true;
+
+        /** Number of stripes; accounts are mapped onto them by id hash. */
+        private int count = 64;
+
+        /** Max requests waiting on one stripe before new ones are turned away. */
+        private int maxWaiting = 32;
+
+        /** Max time a request waits for its stripe. */
+        private Duration timeout = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Export {
+
+        /** Rows fetched per round trip by the export cursor. */
+        private int fetchSize = 500;
+    }
+
+    @Data
+    public static class Partitions {
+
+        /** Months created ahead of the current one. */
+        private int premake = 3;
+
+        /** Partitions ending before {@code now - retention} are dropped; unset keeps every partition. */
+        private Period retention;
+
+        /** Max time partition DDL waits for the table lock before the run gives up. */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,7 @@
+package com.areeba.cms.cmsmircoservice.exception;
+
+public class ResourceConflictException extends RuntimeException {
+    public ResourceConflictException(String message) {
+        super(message);
+    }
+}
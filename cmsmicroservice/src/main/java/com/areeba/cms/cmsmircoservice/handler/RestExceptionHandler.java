@@ -1,8 +1,12 @@
 package com.areeba.cms.cmsmircoservice.handler;
 
+import com.areeba.cms.cmsmircoservice.exception.AccountBusyException;
+import com.areeba.cms.cmsmircoservice.exception.InvalidCursorException;
+import com.areeba.cms.cmsmircoservice.exception.ResourceConflictException;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
 import feign.FeignException;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.*;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.HttpMediaTypeNotSupportedException;
@@ -37,6 +41,11 @@ public class RestExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", ex.getMessage()));
     }
 
+    @ExceptionHandler(ResourceConflictException.class)
+    public ResponseEntity<?> resourceConflict(ResourceConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", ex.getMessage()));
+    }
+
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<?> badPathVar(MethodArgumentTypeMismatchException ex) {
         return ResponseEntity.badRequest().body(Map.of(
@@ -45,6 +54,22 @@ public class RestExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> invalidCursor(InvalidCursorException ex) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid cursor",
+                "value", ex.getMessage()
+        ));
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<?> constraintViolation(ConstraintViolationException ex) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid request parameter",
+                "value", ex.getMessage()
+        ));
+    }
+
     @ExceptionHandler(TransactionRejectedException.class)
     public ResponseEntity<?> transactionRejected(TransactionRejectedException ex) {
         return ResponseEntity.internalServerError().body(Map.of(
@@ -53,6 +78,14 @@ public class RestExceptionHandler {
         ));
     }
 
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<?> accountBusy(AccountBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(Map.of(
+                "error", "Account busy",
+                "value", ex.getMessage()
+        ));
+    }
+
     @ExceptionHandler(FeignException.class)
     public ResponseEntity<?> feignException(FeignException ex) {
         return ResponseEntity.internalServerError().body(Map.of(
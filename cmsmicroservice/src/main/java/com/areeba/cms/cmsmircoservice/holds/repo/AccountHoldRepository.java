@@ -0,0 +1,47 @@
+package com.areeba.cms.cmsmircoservice.holds.repo;
+
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
+import com.areeba.cms.cmsmircoservice.type.HoldStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link AccountHold}.
+ * <p>Status changes go through a conditional update so capture, release and expiry
+ * can race safely: only the first transition out of {@code OPEN} wins.</p>
+ */
+public interface AccountHoldRepository extends JpaRepository<AccountHold, UUID> {
+
+    /**
+     * Moves a hold from one status to another if it is still in {@code from}.
+     *
+     * @param id   hold id
+     * @param from expected current status
+     * @param to   new status
+     * @return {@code 1} if this call made the transition, {@code 0} otherwise
+     */
+    @Modifying
+    @Query("update AccountHold h set h.status = :to where h.id = :id and h.status = :from")
+    int transition(@Param("id") UUID id, @Param("from") HoldStatus from, @Param("to") HoldStatus to);
+
+    /**
+     * Locks a batch of holds that expired before {@code now}, oldest first.
+     * <p>Rows already locked by another sweeper are skipped ({@code SKIP LOCKED}).</p>
+     *
+     * @param status status to match (normally {@code OPEN})
+     * @param now    expiry cut-off
+     * @param limit  batch size
+     * @return locked holds
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select h from AccountHold h where h.status = :status and h.expiresAt < :now order by h.expiresAt")
+    List<AccountHold> findExpiredForUpdate(@Param("status") HoldStatus status, @Param("now") Instant now, Limit limit);
+}
@@ -0,0 +1,54 @@
+package com.areeba.cms.cmsmircoservice.holds.service;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
+
+import java.time.Instant;
+
+/**
+ * Authorization hold operations: reserve funds, then capture or release them.
+ * <p>
+ * The available balance of an account is {@code balance - reserved}; every operation
+ * changes it with a single conditional update instead of a locked read-modify-write.
+ * </p>
+ */
+public interface AccountHoldService {
+
+    /**
+     * Reserves the request amount on the card's account.
+     *
+     * @param request debit request (accountId, amount)
+     * @param card    validated card the hold is placed for
+     * @return the new {@code OPEN} hold
+     * @throws ResourceNotFoundException    if the account no longer exists
+     * @throws TransactionRejectedException if the account is inactive or the available balance is insufficient
+     */
+    AccountHold placeHold(TransactionCreateRequest request, CardEligibility card);
+
+    /**
+     * Converts an open hold into a debit of the account balance.
+     *
+     * @param hold hold returned by {@link #placeHold}
+     * @throws TransactionRejectedException if the hold is no longer open (e.g. it expired)
+     */
+    void captureHold(AccountHold hold);
+
+    /**
+     * Releases an open hold; no-op if it was already captured, released or expired.
+     *
+     * @param hold hold returned by {@link #placeHold}
+     */
+    void releaseHold(AccountHold hold);
+
+    /**
+     * Expires one batch of holds whose expiry is before {@code now}.
+     *
+     * @param now       expiry cut-off
+     * @param batchSize max number of holds to expire
+     * @return number of holds expired; less than {@code batchSize} means nothing is left
+     */
+    int expireHolds(Instant now, int batchSize);
+}
@@ -0,0 +1,134 @@
+package com.areeba.cms.cmsmircoservice.holds.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.AccountStatus;
+import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
+import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.config.HoldProperties;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
+import com.areeba.cms.cmsmircoservice.holds.repo.AccountHoldRepository;
+import com.areeba.cms.cmsmircoservice.holds.service.AccountHoldService;
+import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
+import com.areeba.cms.cmsmircoservice.type.HoldStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Authorization holds backed by the {@code account_holds} table and {@code accounts.reserved}.
+ * <p>Hold status transitions are conditional on {@code OPEN}, so whichever of capture,
+ * release or expiry runs first wins and the reserved amount is adjusted exactly once.</p>
+ */
+@Service
+public class AccountHoldServiceImpl implements AccountHoldService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountHoldServiceImpl.class);
+
+    private final AccountHoldRepository accountHoldRepository;
+    private final AccountRepository accountRepository;
+    private final CardRepository cardRepository;
+    private final HoldProperties holdProperties;
+
+    public AccountHoldServiceImpl(AccountHoldRepository accountHoldRepository, AccountRepository accountRepository, CardRepository cardRepository, HoldProperties holdProperties) {
+        this.accountHoldRepository = accountHoldRepository;
+        this.accountRepository = accountRepository;
+        this.cardRepository = cardRepository;
+        this.holdProperties = holdProperties;
+    }
+
+    /**
+     * Reserves the amount with one guarded update, then records the hold.
+     * <p>Only when the update matches no row is the account read, to report the right reason. The hold
+     * references account and card by id, without loading either.</p>
+     *
+     * @param request debit request (accountId, amount)
+     * @param card    validated card the hold is placed for
+     * @return the new {@code OPEN} hold
+     * @throws ResourceNotFoundException    if the account no longer exists
+     * @throws TransactionRejectedException if the account is inactive or the available balance is insufficient
+     */
+    @Transactional
+    @Override
+    public AccountHold placeHold(TransactionCreateRequest request, CardEligibility card) {
+        UUID accountId = request.getAccountId();
+        BigDecimal amount = request.getTransactionAmount();
+        log.debug("Reserving {} on account {}", amount, accountId);
+        if (accountRepository.reserve(accountId, amount, AccountStatus.ACTIVE) == 0) {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+            if (account.getStatus() != AccountStatus.ACTIVE)
+                throw new TransactionRejectedException("Account not active");
+            throw new TransactionRejectedException("Insufficient balance");
+        }
+
+        Instant now = Instant.now();
+        AccountHold hold = new AccountHold();
+        hold.setAccount(accountRepository.getReferenceById(card.accountId()));
+        hold.setCard(cardRepository.getReferenceById(card.id()));
+        hold.setAmount(amount);
+        hold.setStatus(HoldStatus.OPEN);
+        hold.setCreatedAt(now);
+        hold.setExpiresAt(now.plus(holdProperties.getTtl()));
+        return accountHoldRepository.save(hold);
+    }
+
+    /**
+     * Marks the hold {@code CAPTURED} and debits balance and reserved together.
+     *
+     * @param hold hold returned by {@link #placeHold}
+     * @throws TransactionRejectedException if the hold is no longer open
+     */
+    @Transactional
+    @Override
+    public void captureHold(AccountHold hold) {
+        if (accountHoldRepository.transition(hold.getId(), HoldStatus.OPEN, HoldStatus.CAPTURED) == 0)
+            throw new TransactionRejectedException("Authorization hold expired");
+        accountRepository.captureReserved(hold.getAccount().getId(), hold.getAmount(), Instant.now());
+    }
+
+    /**
+     * Marks the hold {@code RELEASED} and gives the reserved amount back, if it was still open.
+     *
+     * @param hold hold returned by {@link #placeHold}
+     */
+    @Transactional
+    @Override
+    public void releaseHold(AccountHold hold) {
+        if (accountHoldRepository.transition(hold.getId(), HoldStatus.OPEN, HoldStatus.RELEASED) == 1) {
+            accountRepository.releaseReserved(hold.getAccount().getId(), hold.getAmount());
+        }
+    }
+
+    /**
+     * Locks up to {@code batchSize} expired open holds (skipping rows locked elsewhere),
+     * marks them {@code EXPIRED} and issues one reserved-amount update per account.
+     *
+     * @param now       expiry cut-off
+     * @param batchSize max number of holds to expire
+     * @return number of holds expired
+     */
+    @Transactional
+    @Override
+    public int expireHolds(Instant now, int batchSize) {
+        List<AccountHold> expired = accountHoldRepository.findExpiredForUpdate(HoldStatus.OPEN, now, Limit.of(batchSize));
+        Map<UUID, BigDecimal> releasedByAccount = new HashMap<>();
+        for (AccountHold hold : expired) {
+            hold.setStatus(HoldStatus.EXPIRED);
+            releasedByAccount.merge(hold.getAccount().getId(), hold.getAmount(), BigDecimal::add);
+        }
+        releasedByAccount.forEach(accountRepository::releaseReserved);
+        return expired.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.areeba.cms.cmsmircoservice.holds.service.impl;
+
+import com.areeba.cms.cmsmircoservice.config.HoldProperties;
+import com.areeba.cms.cmsmircoservice.holds.service.AccountHoldService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Background job releasing authorization holds that were never captured or released.
+ * <p>Works in batches of {@code cms.areeba.holds.sweep-batch-size}, one transaction per batch,
+ * so a backlog never turns into one long-running transaction.</p>
+ */
+@Component
+public class HoldExpirySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpirySweeper.class);
+
+    private final AccountHoldService accountHoldService;
+    private final HoldProperties holdProperties;
+
+    public HoldExpirySweeper(AccountHoldService accountHoldService, HoldProperties holdProperties) {
+        this.accountHoldService = accountHoldService;
+        this.holdProperties = holdProperties;
+    }
+
+    /**
+     * Expires batches until one comes back smaller than the batch size.
+     */
+    @Scheduled(fixedDelayString = "${cms.areeba.holds.sweep-interval}")
+    public void sweep() {
+        int batchSize = holdProperties.getSweepBatchSize();
+        Instant now = Instant.now();
+        int total = 0;
+        int expired;
+        do {
+            expired = accountHoldService.expireHolds(now, batchSize);
+            total += expired;
+        } while (expired == batchSize);
+        if (total > 0) log.info("Expired {} authorization holds", total);
+    }
+}
@@ -0,0 +1,126 @@
+package com.areeba.cms.cmsmircoservice.rest;
+
+import com.areeba.cms.cmsmicroservice.type.FraudCheckRequest;
+import com.areeba.cms.cmsmicroservice.type.FraudCheckResponse;
+import com.areeba.cms.cmsmircoservice.config.FraudProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local approximation of the fraud service rules, used while it is unavailable.
+ * <p>Applies the same amount limit and a per-card attempt rate, counted only over the attempts
+ * this instance saw since the outage began; {@link #reset()} forgets them once the fraud service
+ * is back, and {@link #evictExpired()} drops cards idle for longer than the interval meanwhile.
+ * Rejections use the fraud service reasons; approvals carry {@value FraudGateway#UNAVAILABLE}.</p>
+ */
+@Component
+public class DegradedFraudRules {
+
+    private final FraudProperties.Degraded degraded;
+    private final Map<UUID, Attempts> attemptsByCard = new ConcurrentHashMap<>();
+
+    public DegradedFraudRules(FraudProperties fraudProperties) {
+        this.degraded = fraudProperties.getDegraded();
+    }
+
+    /**
+     * Evaluates the request and records it as an attempt for its card.
+     *
+     * @param request cardId, amount, and timestamp
+     * @return local decision
+     */
+    public FraudCheckResponse evaluate(FraudCheckRequest request) {
+        long eventTime = request.getTimestamp().toInstant().toEpochMilli();
+        long since = eventTime - degraded.getInterval().toMillis();
+        int recent;
+        do {
+            recent = attemptsByCard.computeIfAbsent(request.getCardId(), id -> new Attempts(degraded.getMaxAttempts()))
+                    .countAndRecord(since, eventTime);
+        } while (recent < 0); // evicted between lookup and record, retry on a fresh entry
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        if (request.getAmount().compareTo(degraded.getLimit()) > 0) {
+            fraudCheckResponse.setApproved(false);
+            fraudCheckResponse.setReason("AMOUNT_EXCEEDS_LIMIT");
+        } else if (recent >= degraded.getMaxAttempts()) {
+            fraudCheckResponse.setApproved(false);
+            fraudCheckResponse.setReason("FREQUENCY_EXCEEDS_LIMIT");
+        } else {
+            fraudCheckResponse.setApproved(true);
+            fraudCheckResponse.setReason(FraudGateway.UNAVAILABLE);
+        }
+        return fraudCheckResponse;
+    }
+
+    /**
+     * Runs every {@code cms.areeba.fraud.degraded.sweep-interval}, so a long outage does not keep
+     * every card ever seen in memory.
+     */
+    @Scheduled(fixedDelayString = "${cms.areeba.fraud.degraded.sweep-interval}")
+    public void evictExpired() {
+        evictExpired(Instant.now());
+    }
+
+    /**
+     * Forgets cards with no attempt inside the interval before {@code now}.
+     *
+     * @param now current time
+     */
+    public void evictExpired(Instant now) {
+        long since = now.toEpochMilli() - degraded.getInterval().toMillis();
+        attemptsByCard.values().removeIf(attempts -> attempts.evictIfOlderThan(since));
+    }
+
+    /**
+     * Forgets all recorded attempts.
+     */
+    public void reset() {
+        attemptsByCard.clear();
+    }
+
+    /**
+     * @return number of cards with recorded attempts
+     */
+    public int size() {
+        return attemptsByCard.size();
+    }
+
+    /** Circular buffer of the newest attempt times (epoch millis) of one card. */
+    private static final class Attempts {
+
+        private final long[] times;
+        private int next;
+        private int size;
+        private long newest = Long.MIN_VALUE;
+        private boolean evicted;
+
+        Attempts(int capacity) {
+            this.times = new long[Math.max(capacity, 1)];
+        }
+
+        /** Returns -1 without recording once the entry has been evicted. */
+        synchronized int countAndRecord(long since, long eventTime) {
+            if (evicted) return -1;
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (times[i] >= since) count++;
+            }
+            times[next] = eventTime;
+            next = (next + 1) % times.length;
+            if (size < times.length) size++;
+            newest = Math.max(newest, eventTime);
+            return count;
+        }
+
+        synchronized boolean evictIfOlderThan(long since) {
+            if (newest >= since) return false;
+            evicted = true;
+            return true;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.areeba.cms.cmsmircoservice.rest;
 
+import com.areeba.cms.cmsmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.cmsmicroservice.type.FraudCheckBatchResponse;
 import com.areeba.cms.cmsmicroservice.type.FraudCheckRequest;
 import com.areeba.cms.cmsmicroservice.type.FraudCheckResponse;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -23,4 +25,15 @@ public interface FraudClient {
      */
     @PostMapping("/evaluate")
     FraudCheckResponse evaluate(@RequestBody FraudCheckRequest request);
+
+    /**
+     * Evaluates a batch of transactions in one call; requests for the same card are counted in order.
+     *
+     * @param request payload with the requests, in order
+     * @return one decision per request, in request order
+     *
+     * @throws feign.FeignException on non-2xx responses or I/O errors
+     */
+    @PostMapping("/evaluate/batch")
+    FraudCheckBatchResponse evaluateBatch(@RequestBody FraudCheckBatchRequest request);
 }
@@ -0,0 +1,118 @@
+package com.areeba.cms.cmsmircoservice.rest;
+
+import com.areeba.cms.cmsmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.cmsmicroservice.type.FraudCheckRequest;
+import com.areeba.cms.cmsmicroservice.type.FraudCheckResponse;
+import com.areeba.cms.cmsmircoservice.config.FraudProperties;
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for fraud decisions: calls {@link FraudClient} and falls back to the configured
+ * {@link FraudProperties.FallbackPolicy} when the fraud service errors or times out.
+ * <p>Calls go through the {@value #INSTANCE} bulkhead and circuit breaker, so during an incident
+ * requests get the fallback immediately instead of each waiting out the read timeout.
+ * Fallback approvals carry the reason {@value #UNAVAILABLE}. A 4xx answer means the request
+ * itself is wrong, not that the service is down, so it is rethrown rather than falling back.</p>
+ */
+@Component
+public class FraudGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudGateway.class);
+
+    /** Reason of a decision taken without the fraud service. */
+    public static final String UNAVAILABLE = "FRAUD_SERVICE_UNAVAILABLE";
+
+    /** Name of the Resilience4j circuit breaker and bulkhead instances. */
+    public static final String INSTANCE = "fraud";
+
+    private final FraudClient fraudClient;
+    private final FraudProperties fraudProperties;
+    private final DegradedFraudRules degradedFraudRules;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+
+    public FraudGateway(FraudClient fraudClient, FraudProperties fraudProperties, DegradedFraudRules degradedFraudRules,
+                        CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.fraudClient = fraudClient;
+        this.fraudProperties = fraudProperties;
+        this.degradedFraudRules = degradedFraudRules;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(INSTANCE);
+        // Local attempt counts only describe the outage
+        this.circuitBreaker.getEventPublisher().onStateTransition(event -> {
+            log.warn("Fraud circuit breaker {}", event.getStateTransition());
+            if (event.getStateTransition().getToState() == CircuitBreaker.State.CLOSED) degradedFraudRules.reset();
+        });
+    }
+
+    /**
+     * Evaluates a single transaction.
+     *
+     * @param request payload with cardId, amount, and timestamp
+     * @return the fraud service decision, or the fallback decision if the call failed
+     * @throws FeignException.FeignClientException if the fraud service rejected the request (4xx)
+     */
+    public FraudCheckResponse evaluate(FraudCheckRequest request) {
+        try {
+            return guarded(() -> fraudClient.evaluate(request));
+        } catch (CallNotPermittedException | BulkheadFullException ex) {
+            log.debug("Fraud service call refused, applying {} fallback: {}", fraudProperties.getFallback(), ex.getMessage());
+            return fallback(request);
+        } catch (FeignException ex) {
+            if (ex instanceof FeignException.FeignClientException) throw ex;
+            log.warn("Fraud service call failed, applying {} fallback: {}", fraudProperties.getFallback(), ex.getMessage());
+            return fallback(request);
+        }
+    }
+
+    /**
+     * Evaluates a batch in one call; if the call fails, every request gets the fallback decision.
+     *
+     * @param requests fraud requests, in order
+     * @return decisions, aligned with {@code requests}
+     * @throws FeignException.FeignClientException if the fraud service rejected the batch (4xx)
+     */
+    public List<FraudCheckResponse> evaluateBatch(List<FraudCheckRequest> requests) {
+        if (requests.isEmpty()) return List.of();
+        FraudCheckBatchRequest fraudCheckBatchRequest = new FraudCheckBatchRequest();
+        fraudCheckBatchRequest.setRequests(requests);
+        try {
+            return guarded(() -> fraudClient.evaluateBatch(fraudCheckBatchRequest)).getResults();
+        } catch (FeignException | CallNotPermittedException | BulkheadFullException ex) {
+            if (ex instanceof FeignException.FeignClientException) throw ex;
+            log.warn("Fraud service batch call failed, applying {} fallback to {} requests: {}", fraudProperties.getFallback(), requests.size(), ex.getMessage());
+            List<FraudCheckResponse> decisions = new ArrayList<>(requests.size());
+            requests.forEach(request -> decisions.add(fallback(request)));
+            return decisions;
+        }
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call)).get();
+    }
+
+    private FraudCheckResponse fallback(FraudCheckRequest request) {
+        if (fraudProperties.getFallback() == FraudProperties.FallbackPolicy.LOCAL_RULES) {
+            return degradedFraudRules.evaluate(request);
+        }
+        boolean approved = fraudProperties.getFallback() == FraudProperties.FallbackPolicy.APPROVE_BELOW_THRESHOLD
+                && request.getAmount().compareTo(fraudProperties.getFallbackThreshold()) <= 0;
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(approved);
+        fraudCheckResponse.setReason(UNAVAILABLE);
+        return fraudCheckResponse;
+    }
+}
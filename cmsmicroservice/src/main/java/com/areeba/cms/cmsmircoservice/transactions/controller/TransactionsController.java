@@ -1,6 +1,8 @@
 package com.areeba.cms.cmsmircoservice.transactions.controller;
 
 import com.areeba.cms.cmsmicroservice.controller.TransactionsApi;
+import com.areeba.cms.cmsmicroservice.type.TransactionBatchRequest;
+import com.areeba.cms.cmsmicroservice.type.TransactionBatchResponse;
 import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
 import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
 import com.areeba.cms.cmsmircoservice.transactions.service.TransactionService;
@@ -28,4 +30,11 @@ public class TransactionsController implements TransactionsApi {
         log.info("Transaction created id={}", transactionResponse.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(transactionResponse);
     }
+
+    @Override
+    public ResponseEntity<TransactionBatchResponse> createTransactionBatch(TransactionBatchRequest batch) {
+        log.debug("Creating transaction batch size={}", batch.getTransactions().size());
+        TransactionBatchResponse transactionBatchResponse = transactionService.createTransactionBatchService(batch);
+        return ResponseEntity.ok(transactionBatchResponse);
+    }
 }
@@ -1,16 +1,70 @@
 package com.areeba.cms.cmsmircoservice.transactions.repo;
 
 import com.areeba.cms.cmsmircoservice.type.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Repository for {@link Transaction}.
  * <p>
- * Provides basic CRUD via {@link JpaRepository}. A new transaction row is written
- * for each request (approved or rejected), and later read for reporting/audit.
+ * A new transaction row is written for each request (approved or rejected). History is read back as
+ * {@link TransactionView} projections in {@code (transactionDate, id)} order, from the
+ * {@code (account_id | card_id, transaction_date, id)} indexes.
+ * </p>
+ * <p>
+ * The history queries take the keyset position as {@code (from, after)}: rows with
+ * {@code from <= transactionDate < to}, skipping those dated exactly {@code from} whose id is not above
+ * {@code after}. Passing {@code KeysetCursor.FIRST_ID} as {@code after} skips nothing, which is how a first
+ * page and a full export read.
  * </p>
  */
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
+
+    String ACCOUNT_HISTORY = "select new com.areeba.cms.cmsmircoservice.transactions.repo.TransactionView("
+            + "t.id, t.account.id, t.card.id, t.transactionAmount, t.transactionType, t.transactionDate, t.response) "
+            + "from Transaction t where t.account.id = :ownerId "
+            + "and t.transactionDate >= :from and t.transactionDate < :to "
+            + "and (t.transactionDate > :from or t.id > :after) "
+            + "order by t.transactionDate, t.id";
+
+    String CARD_HISTORY = "select new com.areeba.cms.cmsmircoservice.transactions.repo.TransactionView("
+            + "t.id, t.account.id, t.card.id, t.transactionAmount, t.transactionType, t.transactionDate, t.response) "
+            + "from Transaction t where t.card.id = :ownerId "
+            + "and t.transactionDate >= :from and t.transactionDate < :to "
+            + "and (t.transactionDate > :from or t.id > :after) "
+            + "order by t.transactionDate, t.id";
+
+    /**
+     * Keyset page of an account's transactions.
+     *
+     * @param accountId account identifier
+     * @param from      lower date bound, inclusive (the cursor's date after the first page)
+     * @param to        upper date bound, exclusive
+     * @param after     id the page continues after among rows dated {@code from}
+     * @param limit     page size
+     * @return transactions in {@code (transactionDate, id)} order
+     */
+    @Query(ACCOUNT_HISTORY)
+    List<TransactionView> findAccountHistory(@Param("ownerId") UUID accountId, @Param("from") Instant from,
+                                             @Param("to") Instant to, @Param("after") UUID after, Limit limit);
+
+    /**
+     * Keyset page of a card's transactions; see {@link #findAccountHistory}.
+     *
+     * @param cardId card identifier
+     * @param from   lower date bound, inclusive (the cursor's date after the first page)
+     * @param to     upper date bound, exclusive
+     * @param after  id the page continues after among rows dated {@code from}
+     * @param limit  page size
+     * @return transactions in {@code (transactionDate, id)} order
+     */
+    @Query(CARD_HISTORY)
+    List<TransactionView> findCardHistory(@Param("ownerId") UUID cardId, @Param("from") Instant from,
+                                          @Param("to") Instant to, @Param("after") UUID after, Limit limit);
 }
@@ -0,0 +1,24 @@
+package com.areeba.cms.cmsmircoservice.transactions.repo;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Columns of a transaction returned by the history endpoints.
+ * <p>Read with a constructor expression instead of the {@code Transaction} entity: account and card come from the
+ * foreign key columns, so history reads never join or load them.</p>
+ *
+ * @param id                transaction identifier
+ * @param accountId         account the transaction belongs to
+ * @param cardId            card used
+ * @param transactionAmount amount
+ * @param transactionType   credit or debit
+ * @param transactionDate   transaction date
+ * @param response          outcome ({@code APPROVED} / {@code REJECTED})
+ */
+public record TransactionView(UUID id, UUID accountId, UUID cardId, BigDecimal transactionAmount,
+                              TransactionType transactionType, Instant transactionDate, String response) {
+}
@@ -0,0 +1,65 @@
+package com.areeba.cms.cmsmircoservice.transactions.service;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionPage;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import org.springframework.core.io.Resource;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Reads the transaction history of an account or a card.
+ * <p>Transactions are returned oldest first within {@code [from, to)}; a {@code null} bound leaves that side open.</p>
+ */
+public interface TransactionHistoryService {
+
+    /**
+     * Keyset page of an account's transactions.
+     *
+     * @param accountId account id
+     * @param from      earliest date, inclusive, or {@code null}
+     * @param to        latest date, exclusive, or {@code null}
+     * @param after     cursor of the previous page, or {@code null} for the first page
+     * @param size      requested page size (server caps at 1000)
+     * @return transactions and the next cursor
+     * @throws ResourceNotFoundException if the account does not exist
+     */
+    TransactionPage listAccountTransactions(UUID accountId, OffsetDateTime from, OffsetDateTime to, String after, int size);
+
+    /**
+     * Keyset page of a card's transactions.
+     *
+     * @param cardId card id
+     * @param from   earliest date, inclusive, or {@code null}
+     * @param to     latest date, exclusive, or {@code null}
+     * @param after  cursor of the previous page, or {@code null} for the first page
+     * @param size   requested page size (server caps at 1000)
+     * @return transactions and the next cursor
+     * @throws ResourceNotFoundException if the card does not exist
+     */
+    TransactionPage listCardTransactions(UUID cardId, OffsetDateTime from, OffsetDateTime to, String after, int size);
+
+    /**
+     * All of an account's transactions in the range, as NDJSON.
+     * <p>Nothing is read until the returned resource is; rows are then streamed from a forward-only cursor
+     * and the database connection is held until the stream is closed.</p>
+     *
+     * @param accountId account id
+     * @param from      earliest date, inclusive, or {@code null}
+     * @param to        latest date, exclusive, or {@code null}
+     * @return one {@code TransactionResponse} JSON object per line
+     * @throws ResourceNotFoundException if the account does not exist
+     */
+    Resource exportAccountTransactions(UUID accountId, OffsetDateTime from, OffsetDateTime to);
+
+    /**
+     * All of a card's transactions in the range, as NDJSON; see {@link #exportAccountTransactions}.
+     *
+     * @param cardId card id
+     * @param from   earliest date, inclusive, or {@code null}
+     * @param to     latest date, exclusive, or {@code null}
+     * @return one {@code TransactionResponse} JSON object per line
+     * @throws ResourceNotFoundException if the card does not exist
+     */
+    Resource exportCardTransactions(UUID cardId, OffsetDateTime from, OffsetDateTime to);
+}
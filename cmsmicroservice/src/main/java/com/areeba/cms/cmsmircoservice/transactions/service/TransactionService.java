@@ -1,5 +1,7 @@
 package com.areeba.cms.cmsmircoservice.transactions.service;
 
+import com.areeba.cms.cmsmicroservice.type.TransactionBatchRequest;
+import com.areeba.cms.cmsmicroservice.type.TransactionBatchResponse;
 import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
 import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
@@ -29,4 +31,19 @@ public interface TransactionService {
      */
     TransactionResponse createTransactionService(TransactionCreateRequest request);
 
+    /**
+     * Creates a batch of transactions.
+     * <p>
+     * Same rules as {@link #createTransactionService(TransactionCreateRequest)}, applied per item:
+     * <ul>
+     *   <li>Validate all cards in one read.</li>
+     *   <li>Run fraud evaluation for the whole batch.</li>
+     *   <li>Lock each account once and apply its items in request order.</li>
+     * </ul>
+     * A failing item does not fail the batch; its outcome and reason are returned instead.
+     *
+     * @param request transactions to create
+     * @return one result per item, in request order
+     */
+    TransactionBatchResponse createTransactionBatchService(TransactionBatchRequest request);
 }
@@ -0,0 +1,99 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.AccountBusyException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serializes same-account work inside the JVM before it reaches the database.
+ * <p>
+ * Accounts are hashed onto a fixed number of fair single-permit stripes. Requests for a busy
+ * account wait here, in FIFO order, instead of each holding a pooled connection while blocked
+ * on the account row lock. Waiting is bounded both in queue length and in time.
+ * </p>
+ * Metrics per stripe (tag {@code stripe}):
+ * <ul>
+ *   <li>{@code cms.transactions.stripe.waiting} — requests currently queued.</li>
+ *   <li>{@code cms.transactions.stripe.wait} — time spent waiting for the stripe.</li>
+ * </ul>
+ */
+@Component
+public class AccountStripedLock {
+
+    private final boolean enabled;
+    private final int maxWaiting;
+    private final Duration timeout;
+    private final Semaphore[] stripes;
+    private final AtomicInteger[] waiting;
+    private final Timer[] waitTimers;
+
+    public AccountStripedLock(TransactionProperties transactionProperties, MeterRegistry meterRegistry) {
+        TransactionProperties.Stripes config = transactionProperties.getStripes();
+        this.enabled = config.isEnabled();
+        this.maxWaiting = config.getMaxWaiting();
+        this.timeout = config.getTimeout();
+        int count = enabled ? config.getCount() : 0;
+        this.stripes = new Semaphore[count];
+        this.waiting = new AtomicInteger[count];
+        this.waitTimers = new Timer[count];
+        for (int i = 0; i < count; i++) {
+            String stripe = String.valueOf(i);
+            stripes[i] = new Semaphore(1, true);
+            waiting[i] = new AtomicInteger();
+            Gauge.builder("cms.transactions.stripe.waiting", waiting[i], AtomicInteger::get)
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+            waitTimers[i] = Timer.builder("cms.transactions.stripe.wait")
+                    .tag("stripe", stripe)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs {@code action} while holding the stripe of {@code accountId}.
+     *
+     * @param accountId account whose stripe to take
+     * @param action    work to run exclusively
+     * @return the action's result
+     * @throws AccountBusyException if the stripe queue is full or the wait times out
+     */
+    public <T> T execute(UUID accountId, Supplier<T> action) {
+        if (!enabled) return action.get();
+        int stripe = Math.floorMod(accountId.hashCode(), stripes.length);
+        acquire(stripe);
+        try {
+            return action.get();
+        } finally {
+            stripes[stripe].release();
+        }
+    }
+
+    private void acquire(int stripe) {
+        if (waiting[stripe].incrementAndGet() > maxWaiting) {
+            waiting[stripe].decrementAndGet();
+            throw new AccountBusyException("Too many pending transactions for account");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = stripes[stripe].tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AccountBusyException("Interrupted while waiting for account");
+        } finally {
+            waiting[stripe].decrementAndGet();
+            waitTimers[stripe].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) throw new AccountBusyException("Timed out waiting for account");
+    }
+}
@@ -0,0 +1,45 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionBatchResult;
+import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.type.Transaction;
+
+/**
+ * One entry of a batch request while it moves through the pipeline.
+ * <p>Carries the request and its validated card, and collects the outcome: the recorded
+ * transaction and/or the reason it was not applied.</p>
+ */
+final class BatchItem {
+
+    final int index;
+    final TransactionCreateRequest request;
+    CardEligibility card;
+    Transaction transaction;
+    TransactionBatchResult.OutcomeEnum outcome;
+    String error;
+
+    BatchItem(int index, TransactionCreateRequest request) {
+        this.index = index;
+        this.request = request;
+    }
+
+    boolean isPending() {
+        return outcome == null;
+    }
+
+    void approve(Transaction transaction) {
+        this.transaction = transaction;
+        this.outcome = TransactionBatchResult.OutcomeEnum.APPROVED;
+    }
+
+    void reject(String error) {
+        this.error = error;
+        this.outcome = TransactionBatchResult.OutcomeEnum.REJECTED;
+    }
+
+    void notFound(String error) {
+        this.error = error;
+        this.outcome = TransactionBatchResult.OutcomeEnum.NOT_FOUND;
+    }
+}
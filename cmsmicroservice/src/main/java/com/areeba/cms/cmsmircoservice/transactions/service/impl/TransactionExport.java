@@ -0,0 +1,119 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionView;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * NDJSON view of a history query, read as the response is written.
+ * <p>On first read it opens its own entity manager and read-only transaction (Postgres only honours the fetch
+ * size inside a transaction) and iterates the query through a forward-only cursor. Rows are serialized into
+ * chunks of about {@link #CHUNK_SIZE} bytes, so memory stays flat however many rows the range holds.
+ * {@link #close()} releases the cursor and the connection, also when the client goes away mid-stream.</p>
+ */
+final class TransactionExport extends InputStream {
+
+    static final int CHUNK_SIZE = 8192;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final String jpql;
+    private final Map<String, Object> parameters;
+    private final int fetchSize;
+    private final ObjectWriter writer;
+    private final Function<TransactionView, TransactionResponse> mapper;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE + 512);
+
+    private EntityManager entityManager;
+    private Stream<TransactionView> rows;
+    private Iterator<TransactionView> iterator;
+    private byte[] chunk = new byte[0];
+    private int position;
+    private boolean closed;
+
+    TransactionExport(EntityManagerFactory entityManagerFactory, String jpql, Map<String, Object> parameters, int fetchSize,
+                      ObjectWriter writer, Function<TransactionView, TransactionResponse> mapper) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.jpql = jpql;
+        this.parameters = parameters;
+        this.fetchSize = fetchSize;
+        this.writer = writer;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) return -1;
+        return chunk[position++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!fill()) return -1;
+        int n = Math.min(len, chunk.length - position);
+        System.arraycopy(chunk, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            if (rows != null) rows.close();
+        } finally {
+            if (entityManager != null) {
+                try {
+                    if (entityManager.getTransaction().isActive()) entityManager.getTransaction().rollback();
+                } finally {
+                    entityManager.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether unread bytes are available
+     */
+    private boolean fill() throws IOException {
+        if (position < chunk.length) return true;
+        if (closed) return false;
+        if (iterator == null) open();
+        buffer.reset();
+        while (buffer.size() < CHUNK_SIZE && iterator.hasNext()) {
+            writer.writeValue(buffer, mapper.apply(iterator.next()));
+            buffer.write('\n');
+        }
+        if (buffer.size() == 0) {
+            close();
+            return false;
+        }
+        chunk = buffer.toByteArray();
+        position = 0;
+        return true;
+    }
+
+    private void open() {
+        entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        TypedQuery<TransactionView> query = entityManager.createQuery(jpql, TransactionView.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        parameters.forEach(query::setParameter);
+        rows = query.getResultStream();
+        iterator = rows.iterator();
+    }
+}
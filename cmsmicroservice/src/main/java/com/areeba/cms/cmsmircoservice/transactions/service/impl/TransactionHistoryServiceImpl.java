@@ -0,0 +1,165 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionPage;
+import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
+import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionRepository;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionView;
+import com.areeba.cms.cmsmircoservice.transactions.service.TransactionHistoryService;
+import com.areeba.cms.cmsmircoservice.utils.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Default {@link TransactionHistoryService}.
+ * <p>Pages are keyset reads of {@link TransactionView} projections on {@code (transactionDate, id)}: the cursor
+ * carries the last row's date and id, and the next page seeks straight to it on the
+ * {@code (account_id | card_id, transaction_date, id)} index. Exports run the same query without a limit through
+ * {@link TransactionExport}.</p>
+ */
+@Service
+public class TransactionHistoryServiceImpl implements TransactionHistoryService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    /** Lower bound used when {@code from} is omitted; no transaction predates it. */
+    static final Instant OPEN_START = Instant.EPOCH;
+
+    /** Upper bound used when {@code to} is omitted; within Postgres' timestamptz range. */
+    static final Instant OPEN_END = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final CardRepository cardRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionProperties transactionProperties;
+    private final ObjectWriter responseWriter;
+
+    public TransactionHistoryServiceImpl(TransactionRepository transactionRepository, AccountRepository accountRepository, CardRepository cardRepository, EntityManagerFactory entityManagerFactory, TransactionProperties transactionProperties, ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.cardRepository = cardRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.transactionProperties = transactionProperties;
+        this.responseWriter = objectMapper.writerFor(TransactionResponse.class);
+    }
+
+    /**
+     * Lists an account's transactions after a cursor.
+     * <p>Size is capped at {@code 1000}; one extra row is read to tell whether another page follows.</p>
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionPage listAccountTransactions(UUID accountId, OffsetDateTime from, OffsetDateTime to, String after, int size) {
+        requireAccount(accountId);
+        int s = pageSize(size);
+        KeysetCursor.Position start = start(from, after);
+        List<TransactionView> rows = transactionRepository.findAccountHistory(accountId, start.time(), end(to), start.id(), Limit.of(s + 1));
+        return toPage(rows, s);
+    }
+
+    /**
+     * Lists a card's transactions after a cursor.
+     * <p>Size is capped at {@code 1000}; one extra row is read to tell whether another page follows.</p>
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public TransactionPage listCardTransactions(UUID cardId, OffsetDateTime from, OffsetDateTime to, String after, int size) {
+        requireCard(cardId);
+        int s = pageSize(size);
+        KeysetCursor.Position start = start(from, after);
+        List<TransactionView> rows = transactionRepository.findCardHistory(cardId, start.time(), end(to), start.id(), Limit.of(s + 1));
+        return toPage(rows, s);
+    }
+
+    @Override
+    public Resource exportAccountTransactions(UUID accountId, OffsetDateTime from, OffsetDateTime to) {
+        requireAccount(accountId);
+        return export(TransactionRepository.ACCOUNT_HISTORY, accountId, from, to);
+    }
+
+    @Override
+    public Resource exportCardTransactions(UUID cardId, OffsetDateTime from, OffsetDateTime to) {
+        requireCard(cardId);
+        return export(TransactionRepository.CARD_HISTORY, cardId, from, to);
+    }
+
+    private Resource export(String jpql, UUID ownerId, OffsetDateTime from, OffsetDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "ownerId", ownerId,
+                "from", from == null ? OPEN_START : from.toInstant(),
+                "to", end(to),
+                "after", KeysetCursor.FIRST_ID);
+        return new InputStreamResource(new TransactionExport(entityManagerFactory, jpql, parameters,
+                transactionProperties.getExport().getFetchSize(), responseWriter, TransactionHistoryServiceImpl::toResponse));
+    }
+
+    private void requireAccount(UUID accountId) {
+        if (!accountRepository.existsById(accountId)) throw new ResourceNotFoundException("Account not found");
+    }
+
+    private void requireCard(UUID cardId) {
+        if (!cardRepository.existsById(cardId)) throw new ResourceNotFoundException("Card not found");
+    }
+
+    private static int pageSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Keyset start: the cursor's position, or {@code from} with nothing skipped for the first page.
+     */
+    private static KeysetCursor.Position start(OffsetDateTime from, String after) {
+        if (after != null) return KeysetCursor.decodePosition(after);
+        return new KeysetCursor.Position(from == null ? OPEN_START : from.toInstant(), KeysetCursor.FIRST_ID);
+    }
+
+    private static Instant end(OffsetDateTime to) {
+        return to == null ? OPEN_END : to.toInstant();
+    }
+
+    private static TransactionPage toPage(List<TransactionView> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<TransactionView> page = hasNext ? rows.subList(0, size) : rows;
+        TransactionPage transactionPage = new TransactionPage();
+        transactionPage.setTransactions(page.stream().map(TransactionHistoryServiceImpl::toResponse).toList());
+        transactionPage.setSize(size);
+        transactionPage.setHasNext(hasNext);
+        if (hasNext) {
+            TransactionView last = page.get(size - 1);
+            transactionPage.setNextCursor(KeysetCursor.encode(last.transactionDate(), last.id()));
+        }
+        return transactionPage;
+    }
+
+    /**
+     * Maps a {@link TransactionView} to its API response; date in UTC, as for created transactions.
+     */
+    static TransactionResponse toResponse(TransactionView view) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(view.id());
+        response.setAccountId(view.accountId());
+        response.setCardId(view.cardId());
+        response.setTransactionAmount(view.transactionAmount());
+        response.setTransactionType(view.transactionType());
+        response.setTransactionDate(OffsetDateTime.ofInstant(view.transactionDate(), ZoneOffset.UTC));
+        response.setResponse(TransactionResponse.ResponseEnum.valueOf(view.response()));
+        return response;
+    }
+}
@@ -0,0 +1,345 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmicroservice.type.*;
+import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
+import com.areeba.cms.cmsmircoservice.holds.service.AccountHoldService;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionRepository;
+import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
+import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.type.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Database steps of the transaction authorization pipeline.
+ * <p>Each method runs in its own short DB transaction so that {@link TransactionServiceImpl}
+ * can call the fraud service in between without holding a connection or a row lock.</p>
+ * <p>The approved path is timed per phase in {@code cms.transactions.phase} (tag {@code phase}):
+ * {@code row_lock} for the account row lock, {@code apply} for the balance change and {@code insert}
+ * for the transaction row. Both are flushed inside their phase so the statements are counted where
+ * they run rather than at commit.</p>
+ * <p>Cards are read as a {@link CardEligibility} projection through {@link CardEligibilityCache}, never
+ * as entities; the transaction and hold rows reference card and account through
+ * {@code getReferenceById}, which costs no query.</p>
+ */
+@Component
+public class TransactionLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLedger.class);
+
+    private final AccountRepository accountRepository;
+    private final CardRepository cardRepository;
+    private final CardEligibilityCache cardEligibilityCache;
+    private final TransactionRepository transactionRepository;
+    private final AccountHoldService accountHoldService;
+    private final Timer rowLockTimer;
+    private final Timer applyTimer;
+    private final Timer insertTimer;
+
+    public TransactionLedger(AccountRepository accountRepository, CardRepository cardRepository, CardEligibilityCache cardEligibilityCache, TransactionRepository transactionRepository, AccountHoldService accountHoldService, MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.cardRepository = cardRepository;
+        this.cardEligibilityCache = cardEligibilityCache;
+        this.transactionRepository = transactionRepository;
+        this.accountHoldService = accountHoldService;
+        this.rowLockTimer = phaseTimer(meterRegistry, "row_lock");
+        this.applyTimer = phaseTimer(meterRegistry, "apply");
+        this.insertTimer = phaseTimer(meterRegistry, "insert");
+    }
+
+    /**
+     * Timer of one phase of the authorization pipeline.
+     *
+     * @param meterRegistry registry to register with
+     * @param phase         value of the {@code phase} tag
+     * @return the {@code cms.transactions.phase} timer for that phase
+     */
+    static Timer phaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("cms.transactions.phase")
+                .description("Time spent in each phase of transaction authorization")
+                .tag("phase", phase)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Validates the request without taking any lock.
+     * <p>Checks card eligibility (ACTIVE, not expired, belongs to account) and account
+     * eligibility (ACTIVE, sufficient available balance for debits) against a plain read.</p>
+     *
+     * @param request amount, type (C/D), accountId, cardId
+     * @return the validated card's eligibility columns
+     * @throws ResourceNotFoundException    if account or card is missing
+     * @throws TransactionRejectedException on eligibility failures (inactive/expired/ownership/insufficient)
+     */
+    @Transactional(readOnly = true)
+    public CardEligibility validate(TransactionCreateRequest request) {
+        Account account = accountRepository.findById(request.getAccountId())
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        CardEligibility card = cardEligibilityCache.find(request.getCardId())
+                .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
+
+        // Card eligibility
+        log.debug("Checking card eligibility {}", request.getAccountId());
+        String rejection = cardRejection(card, account.getId());
+        if (rejection != null)
+            throw new TransactionRejectedException(rejection);
+
+        // Account eligibility
+        log.debug("Checking account eligibility {}", request.getAccountId());
+        checkAccount(account, request);
+        return card;
+    }
+
+    /**
+     * Persists a {@code REJECTED} transaction record; balance is left untouched.
+     *
+     * @param request the original request
+     * @param card    card returned by {@link #validate(TransactionCreateRequest)}
+     */
+    @Transactional
+    public void recordRejected(TransactionCreateRequest request, CardEligibility card) {
+        Transaction transaction = newTransaction(request, card);
+        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.REJECTED));
+        transactionRepository.save(transaction);
+    }
+
+    /**
+     * Locks the account row, re-validates it and applies the balance change.
+     * <p>Only the account is re-checked here: status and balance may have changed since
+     * {@link #validate(TransactionCreateRequest)} and are exactly what the lock protects.</p>
+     *
+     * @param request the original request
+     * @param card    card returned by {@link #validate(TransactionCreateRequest)}
+     * @return the persisted {@code APPROVED} transaction
+     * @throws ResourceNotFoundException    if the account was deleted in the meantime
+     * @throws TransactionRejectedException if the account is no longer eligible
+     */
+    @Transactional
+    public Transaction apply(TransactionCreateRequest request, CardEligibility card) {
+        log.debug("Locking account {}", request.getAccountId());
+        Account account = rowLockTimer.record(() -> accountRepository.findByIdForUpdate(request.getAccountId()))
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        checkAccount(account, request);
+
+        // Apply balance
+        log.debug("Apply balance {}", request.getAccountId());
+        applyTimer.record(() -> {
+            BigDecimal amount = request.getTransactionAmount();
+            if (request.getTransactionType() == TransactionType.D) {
+                account.setBalance(account.getBalance().subtract(amount));
+            } else {
+                account.setBalance(account.getBalance().add(amount));
+            }
+            accountRepository.flush();
+        });
+
+        // Save transaction
+        Transaction transaction = newTransaction(request, account, cardRepository.getReferenceById(card.id()));
+        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
+        log.debug("Saving transaction for account {}", account.getId());
+        return insert(transaction);
+    }
+
+    /**
+     * Captures a debit that was reserved by an authorization hold and persists it.
+     * <p>No row lock: the hold already guarantees the funds, and the capture is a single update.</p>
+     *
+     * @param request the original request
+     * @param card    card returned by {@link #validate(TransactionCreateRequest)}
+     * @param hold    open hold placed for this request
+     * @return the persisted {@code APPROVED} transaction
+     * @throws TransactionRejectedException if the hold expired before capture
+     */
+    @Transactional
+    public Transaction capture(TransactionCreateRequest request, CardEligibility card, AccountHold hold) {
+        log.debug("Capturing hold {} for account {}", hold.getId(), request.getAccountId());
+        applyTimer.record(() -> accountHoldService.captureHold(hold));
+        Transaction transaction = newTransaction(request, card);
+        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
+        return insert(transaction);
+    }
+
+    /**
+     * Applies the balance change with a single guarded update and persists the transaction.
+     * <p>The update only matches an {@code ACTIVE} account with enough available balance, so the
+     * row count is the approval decision; the account is read only to explain a refusal.</p>
+     *
+     * @param request the original request
+     * @param card    card returned by {@link #validate(TransactionCreateRequest)}
+     * @return the persisted {@code APPROVED} transaction
+     * @throws ResourceNotFoundException    if the account was deleted in the meantime
+     * @throws TransactionRejectedException if the account is no longer eligible
+     */
+    @Transactional
+    public Transaction applyGuarded(TransactionCreateRequest request, CardEligibility card) {
+        UUID accountId = request.getAccountId();
+        BigDecimal amount = request.getTransactionAmount();
+        Instant now = Instant.now();
+        log.debug("Apply guarded balance {}", accountId);
+        int updated = applyTimer.record(() -> request.getTransactionType() == TransactionType.D
+                ? accountRepository.debitIfAvailable(accountId, amount, AccountStatus.ACTIVE, now)
+                : accountRepository.creditIfActive(accountId, amount, AccountStatus.ACTIVE, now));
+        if (updated == 0) {
+            Account account = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+            checkAccount(account, request);
+            throw new TransactionRejectedException("Insufficient balance");
+        }
+
+        // Save transaction
+        Transaction transaction = newTransaction(request, card);
+        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
+        log.debug("Saving transaction for account {}", accountId);
+        return insert(transaction);
+    }
+
+    /**
+     * Loads the cards of a batch (cache misses in one read) and checks their eligibility.
+     * <p>Items whose card is missing or not eligible get their outcome set; the others get
+     * their card and stay pending. Account status and balance are left to
+     * {@link #applyBatch(UUID, List)}, where they are checked in order under the lock.</p>
+     *
+     * @param items batch items, in request order
+     */
+    @Transactional(readOnly = true)
+    public void validateBatch(List<BatchItem> items) {
+        Set<UUID> cardIds = new HashSet<>();
+        items.forEach(item -> cardIds.add(item.request.getCardId()));
+        Map<UUID, CardEligibility> cards = cardEligibilityCache.findAll(cardIds);
+
+        for (BatchItem item : items) {
+            CardEligibility card = cards.get(item.request.getCardId());
+            if (card == null) {
+                item.notFound("Card not found");
+                continue;
+            }
+            String rejection = cardRejection(card, item.request.getAccountId());
+            if (rejection != null) {
+                item.reject(rejection);
+                continue;
+            }
+            item.card = card;
+        }
+    }
+
+    /**
+     * Persists a {@code REJECTED} transaction record for each item, in one DB transaction.
+     *
+     * @param items items rejected by the fraud service; their card is set
+     */
+    @Transactional
+    public void recordRejectedBatch(List<BatchItem> items) {
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            Transaction transaction = newTransaction(item.request, item.card);
+            transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.REJECTED));
+            item.transaction = transaction;
+            transactions.add(transaction);
+        }
+        transactionRepository.saveAll(transactions);
+    }
+
+    /**
+     * Locks the account row once and applies the items in order.
+     * <p>Each item is checked against the balance left by the previous ones; an ineligible item
+     * is rejected without a record, exactly like a single transaction failing validation, and
+     * the following items still apply.</p>
+     *
+     * @param accountId account shared by all items
+     * @param items     pending items for that account, in request order
+     */
+    @Transactional
+    public void applyBatch(UUID accountId, List<BatchItem> items) {
+        log.debug("Locking account {} for {} transactions", accountId, items.size());
+        Account account = rowLockTimer.record(() -> accountRepository.findByIdForUpdate(accountId)).orElse(null);
+        if (account == null) {
+            items.forEach(item -> item.notFound("Account not found"));
+            return;
+        }
+
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        for (BatchItem item : items) {
+            String rejection = accountRejection(account, item.request);
+            if (rejection != null) {
+                item.reject(rejection);
+                continue;
+            }
+            BigDecimal amount = item.request.getTransactionAmount();
+            if (item.request.getTransactionType() == TransactionType.D) {
+                account.setBalance(account.getBalance().subtract(amount));
+            } else {
+                account.setBalance(account.getBalance().add(amount));
+            }
+            Transaction transaction = newTransaction(item.request, account, cardRepository.getReferenceById(item.card.id()));
+            transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
+            item.approve(transaction);
+            transactions.add(transaction);
+        }
+        log.debug("Saving {} transactions for account {}", transactions.size(), accountId);
+        insertTimer.record(() -> {
+            transactionRepository.saveAll(transactions);
+            transactionRepository.flush();
+        });
+    }
+
+    private Transaction insert(Transaction transaction) {
+        return insertTimer.record(() -> {
+            Transaction saved = transactionRepository.save(transaction);
+            transactionRepository.flush();
+            return saved;
+        });
+    }
+
+    private static String cardRejection(CardEligibility card, UUID accountId) {
+        if (card.status() != CardStatus.ACTIVE)
+            return "Card not active";
+        if (card.expiry().isBefore(LocalDate.now()))
+            return "Card expired";
+        if (!card.accountId().equals(accountId))
+            return "Card does not belong to account";
+        return null;
+    }
+
+    private static String accountRejection(Account account, TransactionCreateRequest request) {
+        if (account.getStatus() != AccountStatus.ACTIVE)
+            return "Account not active";
+        if (request.getTransactionType() == TransactionType.D && account.getAvailableBalance().compareTo(request.getTransactionAmount()) < 0)
+            return "Insufficient balance";
+        return null;
+    }
+
+    private static void checkAccount(Account account, TransactionCreateRequest request) {
+        String rejection = accountRejection(account, request);
+        if (rejection != null)
+            throw new TransactionRejectedException(rejection);
+    }
+
+    private Transaction newTransaction(TransactionCreateRequest request, CardEligibility card) {
+        return newTransaction(request, accountRepository.getReferenceById(card.accountId()), cardRepository.getReferenceById(card.id()));
+    }
+
+    private static Transaction newTransaction(TransactionCreateRequest request, Account account, Card card) {
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setCard(card);
+        transaction.setTransactionAmount(request.getTransactionAmount());
+        transaction.setTransactionType(request.getTransactionType());
+        transaction.setTransactionDate(Instant.now());
+        return transaction;
+    }
+}
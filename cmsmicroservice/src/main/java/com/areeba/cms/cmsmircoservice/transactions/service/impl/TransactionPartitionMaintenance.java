@@ -0,0 +1,48 @@
+package com.areeba.cms.cmsmircoservice.transactions.service.impl;
+
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.common.partitions.RangePartitionMaintenance;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.Period;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps the monthly partitions of {@code transactions} (see {@code V12__transactions_partitioned.sql}).
+ * <p>Creates {@code transactions_pYYYYMM} for the current month and the next
+ * {@code cms.areeba.transactions.partitions.premake} months; when {@code cms.areeba.transactions.partitions.retention}
+ * is set, drops every partition whose upper bound is not after {@code now - retention}. See
+ * {@link RangePartitionMaintenance} for locking and failure handling.</p>
+ */
+@Component
+public class TransactionPartitionMaintenance {
+
+    static final String TABLE = "transactions";
+
+    private final RangePartitionMaintenance partitions;
+    private final TransactionProperties.Partitions properties;
+
+    public TransactionPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                           TransactionProperties transactionProperties,
+                                           @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.partitions = new RangePartitionMaintenance(jdbcTemplate, transactionManager, schema, TABLE,
+                RangePartitionMaintenance.Granularity.MONTH);
+        this.properties = transactionProperties.getPartitions();
+    }
+
+    /**
+     * Runs at startup and then every {@code cms.areeba.transactions.partitions.maintenance-interval}.
+     */
+    @Scheduled(fixedDelayString = "${cms.areeba.transactions.partitions.maintenance-interval}")
+    public void maintain() {
+        Instant now = Instant.now();
+        Period retention = properties.getRetention();
+        Instant cutoff = retention == null ? null : now.atZone(ZoneOffset.UTC).minus(retention).toInstant();
+        partitions.maintain(now, properties.getPremake(), properties.getLockTimeout(), cutoff);
+    }
+}
@@ -1,128 +1,256 @@
 package com.areeba.cms.cmsmircoservice.transactions.service.impl;
 
 import com.areeba.cms.cmsmicroservice.type.*;
-import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
-import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.AccountBusyException;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
-import com.areeba.cms.cmsmircoservice.rest.FraudClient;
-import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionRepository;
+import com.areeba.cms.cmsmircoservice.holds.service.AccountHoldService;
+import com.areeba.cms.cmsmircoservice.rest.FraudGateway;
 import com.areeba.cms.cmsmircoservice.transactions.service.TransactionService;
-import com.areeba.cms.cmsmircoservice.type.Account;
-import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
 import com.areeba.cms.cmsmircoservice.type.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.Instant;
-import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * Handles transaction creation: validation, fraud check, balance update, and persistence.
- * <p>Runs in a single DB transaction; account row is fetched with a write lock to serialize balance changes.</p>
+ * <p>The fraud call runs outside any DB transaction; the account row is only locked for the
+ * short re-validate-and-apply step in {@link TransactionLedger#apply}. In {@code HOLD} mode debits
+ * instead reserve funds before the fraud call and capture them afterwards; in {@code GUARDED} mode
+ * the balance is changed by one conditional update without any lock.</p>
+ * Metrics, next to the ledger's phases and the stripe wait ({@code cms.transactions.stripe.wait}):
+ * <ul>
+ *   <li>{@code cms.transactions.phase} — tag {@code phase}: {@code validate} (card and account lookup),
+ *       {@code hold} and {@code fraud}.</li>
+ *   <li>{@code cms.transactions.rejected} — rejected transactions, tag {@code reason} (the rejection message).</li>
+ *   <li>{@code cms.transactions.fraud.rejected} — fraud rejections, tag {@code reason} (the fraud reason code).</li>
+ * </ul>
  */
 @Service
 public class TransactionServiceImpl implements TransactionService {
 
     private static final Logger log = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
-    private final TransactionRepository transactionRepository;
-    private final AccountRepository accountRepository;
-    private final CardRepository cardRepository;
-    private final FraudClient fraudClient;
+    private final TransactionLedger transactionLedger;
+    private final AccountHoldService accountHoldService;
+    private final AccountStripedLock accountStripedLock;
+    private final FraudGateway fraudGateway;
+    private final TransactionProperties transactionProperties;
+    private final MeterRegistry meterRegistry;
+    private final Timer validateTimer;
+    private final Timer holdTimer;
+    private final Timer fraudTimer;
 
-    public TransactionServiceImpl(TransactionRepository transactionRepository, AccountRepository accountRepository, CardRepository cardRepository, FraudClient fraudClient) {
-        this.transactionRepository = transactionRepository;
-        this.accountRepository = accountRepository;
-        this.cardRepository = cardRepository;
-        this.fraudClient = fraudClient;
+    public TransactionServiceImpl(TransactionLedger transactionLedger, AccountHoldService accountHoldService, AccountStripedLock accountStripedLock, FraudGateway fraudGateway, TransactionProperties transactionProperties, MeterRegistry meterRegistry) {
+        this.transactionLedger = transactionLedger;
+        this.accountHoldService = accountHoldService;
+        this.accountStripedLock = accountStripedLock;
+        this.fraudGateway = fraudGateway;
+        this.transactionProperties = transactionProperties;
+        this.meterRegistry = meterRegistry;
+        this.validateTimer = TransactionLedger.phaseTimer(meterRegistry, "validate");
+        this.holdTimer = TransactionLedger.phaseTimer(meterRegistry, "hold");
+        this.fraudTimer = TransactionLedger.phaseTimer(meterRegistry, "fraud");
     }
 
     /**
      * Creates a debit/credit transaction.
      * <p>Flow:</p>
      * <ol>
-     *   <li>Lock account row for update (pessimistic write).</li>
-     *   <li>Validate card (ACTIVE, not expired, belongs to account).</li>
-     *   <li>Validate account (ACTIVE, sufficient balance for debits).</li>
-     *   <li>Call fraud service; if rejected, persist a rejected transaction and return.</li>
-     *   <li>Apply balance change and persist an approved transaction.</li>
+     *   <li>Validate card and account without locking (read-only transaction).</li>
+     *   <li>{@code HOLD} mode, debits only: reserve the amount with a conditional update.</li>
+     *   <li>Call fraud service with no DB connection held ({@link FraudGateway} applies the fallback policy
+     *       if it is unavailable); if rejected, release any hold, persist a rejected transaction and return.</li>
+     *   <li>Wait for the account's in-JVM stripe ({@link AccountStripedLock}).</li>
+     *   <li>Capture the hold, apply a guarded update ({@code GUARDED}), or lock account row (pessimistic write)
+     *       and re-validate account status and balance ({@code LOCK}).</li>
+     *   <li>Persist an approved transaction. If the stripe or the capture fails, the hold is released.</li>
      * </ol>
      *
      * @param request amount, type (C/D), accountId, cardId
      * @return persisted transaction as a response DTO
      * @throws ResourceNotFoundException    if account or card is missing
      * @throws TransactionRejectedException on eligibility failures (inactive/expired/ownership/insufficient)
+     * @throws AccountBusyException         if too many requests are already queued for the account
      */
-    @Transactional
     @Override
     public TransactionResponse createTransactionService(TransactionCreateRequest request) {
-        // Load and lock account for update
-        log.debug("Locking account {}", request.getAccountId());
-        Account account = accountRepository.findByIdForUpdate(request.getAccountId())
-                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
-        Card card = cardRepository.findById(request.getCardId())
-                .orElseThrow(() -> new ResourceNotFoundException("Card not found"));
-
-        // Card eligibility
-        log.debug("Checking card eligibility {}", request.getAccountId());
-        if (card.getStatus() != CardStatus.ACTIVE)
-            throw new TransactionRejectedException("Card not active");
-        if (card.getExpiry().isBefore(LocalDate.now()))
-            throw new TransactionRejectedException("Card expired");
-        if (!card.getAccount().getId().equals(account.getId()))
-            throw new TransactionRejectedException("Card does not belong to account");
-
-        // Account eligibility
-        log.debug("Checking account eligibility {}", request.getAccountId());
-        if (account.getStatus() != AccountStatus.ACTIVE)
-            throw new TransactionRejectedException("Account not active");
-        BigDecimal amount = request.getTransactionAmount();
-        if (request.getTransactionType() == TransactionType.D && account.getBalance().compareTo(amount) < 0)
-            throw new TransactionRejectedException("Insufficient balance");
+        try {
+            return create(request);
+        } catch (TransactionRejectedException ex) {
+            countRejected(ex.getMessage());
+            throw ex;
+        }
+    }
+
+    private TransactionResponse create(TransactionCreateRequest request) {
+        log.debug("Validating transaction {}", request.getAccountId());
+        CardEligibility card = validateTimer.record(() -> transactionLedger.validate(request));
+        AccountHold hold = null;
+        if (transactionProperties.getApplyMode() == TransactionProperties.ApplyMode.HOLD
+                && request.getTransactionType() == TransactionType.D) {
+            hold = holdTimer.record(() -> accountHoldService.placeHold(request, card));
+        }
 
         // Fraud check
         log.debug("Checking fraud {}", request.getAccountId());
         FraudCheckRequest fraudCheckRequest = new FraudCheckRequest();
-        fraudCheckRequest.setAmount(amount);
-        fraudCheckRequest.setCardId(card.getId());
+        fraudCheckRequest.setAmount(request.getTransactionAmount());
+        fraudCheckRequest.setCardId(card.id());
+        fraudCheckRequest.setAccountId(card.accountId());
         fraudCheckRequest.setTimestamp(OffsetDateTime.now(ZoneOffset.UTC));
-        FraudCheckResponse fraud = fraudClient.evaluate(fraudCheckRequest);
-        Transaction transaction = new Transaction();
-        transaction.setAccount(account);
-        transaction.setCard(card);
-        transaction.setTransactionAmount(amount);
-        transaction.setTransactionType(request.getTransactionType());
-        transaction.setTransactionDate(Instant.now());
+        FraudCheckResponse fraud;
+        try {
+            fraud = fraudTimer.record(() -> fraudGateway.evaluate(fraudCheckRequest));
+        } catch (RuntimeException ex) {
+            if (hold != null) accountHoldService.releaseHold(hold);
+            throw ex;
+        }
         if (!fraud.getApproved()) {
             // Save rejected transaction record
-            transaction.setResponse("REJECTED");
-            transactionRepository.save(transaction);
-            throw new TransactionRejectedException("Possible fraud detected");
+            countFraudRejected(fraud.getReason());
+            if (hold != null) accountHoldService.releaseHold(hold);
+            transactionLedger.recordRejected(request, card);
+            throw new TransactionRejectedException(fraudRejection(fraud));
         }
 
-        // Apply balance
-        log.debug("Apply balance {}", request.getAccountId());
-        if (request.getTransactionType() == TransactionType.D) {
-            account.setBalance(account.getBalance().subtract(amount));
-        } else {
-            account.setBalance(account.getBalance().add(amount));
+        // Same-account requests queue in memory here, before a connection is taken
+        AccountHold heldFunds = hold;
+        Transaction transaction;
+        try {
+            transaction = accountStripedLock.execute(request.getAccountId(), () -> {
+                if (heldFunds != null) return transactionLedger.capture(request, card, heldFunds);
+                if (transactionProperties.getApplyMode() == TransactionProperties.ApplyMode.GUARDED)
+                    return transactionLedger.applyGuarded(request, card);
+                return transactionLedger.apply(request, card);
+            });
+        } catch (RuntimeException ex) {
+            // Busy stripe or failed capture: give the funds back now rather than at hold expiry
+            if (hold != null) accountHoldService.releaseHold(hold);
+            throw ex;
         }
-
-        // Save transaction
-        transaction.setResponse(String.valueOf(TransactionResponse.ResponseEnum.APPROVED));
-        log.debug("Saving transaction for account {}", transaction.getAccount().getId());
-        transaction = transactionRepository.save(transaction);
         log.info("Transaction saved {}", transaction.getId());
 
         return toResponse(transaction);
     }
 
+    /**
+     * Creates a batch of transactions.
+     * <p>Flow:</p>
+     * <ol>
+     *   <li>Load and check all cards in one read-only transaction.</li>
+     *   <li>Evaluate fraud for every remaining item; persist fraud rejections together.</li>
+     *   <li>Group the approved items by account (first-seen order) and, per account, wait for its
+     *       stripe, lock the row once and apply the items in request order.</li>
+     * </ol>
+     * <p>Batches always use the row lock, whatever the apply mode: one lock per account amortizes
+     * better than a hold or a guarded update per item.</p>
+     *
+     * @param request transactions to create
+     * @return one result per item, in request order
+     */
+    @Override
+    public TransactionBatchResponse createTransactionBatchService(TransactionBatchRequest request) {
+        List<BatchItem> items = new ArrayList<>(request.getTransactions().size());
+        for (TransactionCreateRequest transaction : request.getTransactions()) {
+            items.add(new BatchItem(items.size(), transaction));
+        }
+        log.debug("Validating batch of {} transactions", items.size());
+        validateTimer.record(() -> transactionLedger.validateBatch(items));
+
+        // Fraud check
+        List<BatchItem> checked = items.stream().filter(BatchItem::isPending).toList();
+        List<FraudCheckRequest> fraudCheckRequests = new ArrayList<>(checked.size());
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        for (BatchItem item : checked) {
+            FraudCheckRequest fraudCheckRequest = new FraudCheckRequest();
+            fraudCheckRequest.setAmount(item.request.getTransactionAmount());
+            fraudCheckRequest.setCardId(item.card.id());
+            fraudCheckRequest.setAccountId(item.card.accountId());
+            fraudCheckRequest.setTimestamp(now);
+            fraudCheckRequests.add(fraudCheckRequest);
+        }
+        List<FraudCheckResponse> decisions = fraudTimer.record(() -> fraudGateway.evaluateBatch(fraudCheckRequests));
+        List<BatchItem> fraudRejected = new ArrayList<>();
+        Map<UUID, List<BatchItem>> byAccount = new LinkedHashMap<>();
+        for (int i = 0; i < checked.size(); i++) {
+            BatchItem item = checked.get(i);
+            if (decisions.get(i).getApproved()) {
+                byAccount.computeIfAbsent(item.request.getAccountId(), id -> new ArrayList<>()).add(item);
+            } else {
+                countFraudRejected(decisions.get(i).getReason());
+                item.reject(fraudRejection(decisions.get(i)));
+                fraudRejected.add(item);
+            }
+        }
+        if (!fraudRejected.isEmpty()) {
+            transactionLedger.recordRejectedBatch(fraudRejected);
+        }
+
+        // One stripe wait and one row lock per account
+        byAccount.forEach((accountId, accountItems) -> {
+            try {
+                accountStripedLock.execute(accountId, () -> {
+                    transactionLedger.applyBatch(accountId, accountItems);
+                    return null;
+                });
+            } catch (AccountBusyException ex) {
+                accountItems.forEach(item -> item.reject(ex.getMessage()));
+            }
+        });
+        log.info("Transaction batch processed size={} accounts={}", items.size(), byAccount.size());
+        items.stream()
+                .filter(item -> item.outcome == TransactionBatchResult.OutcomeEnum.REJECTED)
+                .forEach(item -> countRejected(item.error));
+
+        TransactionBatchResponse response = new TransactionBatchResponse();
+        response.setResults(items.stream().map(this::toResult).toList());
+        return response;
+    }
+
+    private void countRejected(String reason) {
+        Counter.builder("cms.transactions.rejected")
+                .description("Rejected transactions by reason")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void countFraudRejected(String reason) {
+        Counter.builder("cms.transactions.fraud.rejected")
+                .description("Transactions rejected by the fraud check, by fraud reason code")
+                .tag("reason", String.valueOf(reason))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static String fraudRejection(FraudCheckResponse fraud) {
+        return FraudGateway.UNAVAILABLE.equals(fraud.getReason()) ? "Fraud check unavailable" : "Possible fraud detected";
+    }
+
+    private TransactionBatchResult toResult(BatchItem item) {
+        TransactionBatchResult result = new TransactionBatchResult();
+        result.setIndex(item.index);
+        result.setOutcome(item.outcome);
+        result.setError(item.error);
+        if (item.transaction != null) result.setTransaction(toResponse(item.transaction));
+        return result;
+    }
+
     /**
      * Maps a {@link Transaction} entity to its API response.
      * <p>Date is returned as {@code OffsetDateTime} in UTC.</p>
@@ -130,7 +258,7 @@ public class TransactionServiceImpl implements TransactionService {
      * @param transaction managed entity
      * @return response DTO
      */
-    private TransactionResponse toResponse(Transaction transaction) {
+    TransactionResponse toResponse(Transaction transaction) {
         TransactionResponse response = new TransactionResponse();
         response.setId(transaction.getId());
         response.setAccountId(transaction.getAccount().getId());
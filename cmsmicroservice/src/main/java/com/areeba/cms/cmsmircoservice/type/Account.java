@@ -28,12 +28,19 @@ public class Account {
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal balance = BigDecimal.ZERO;
 
+    /** Sum of open authorization holds; only ever changed by bulk updates in {@code AccountRepository}. */
+    @Column(nullable = false, precision = 19, scale = 2, insertable = false, updatable = false)
+    private BigDecimal reserved = BigDecimal.ZERO;
+
     @Column(nullable = false)
     private Instant createdAt = Instant.now();
 
     @Column(nullable = false)
     private Instant updatedAt = Instant.now();
 
+    /** Balance minus open holds, i.e. what a new debit may still use. */
+    public BigDecimal getAvailableBalance() { return balance.subtract(reserved); }
+
     @PreUpdate
     void onUpdate() { this.updatedAt = Instant.now(); }
 }
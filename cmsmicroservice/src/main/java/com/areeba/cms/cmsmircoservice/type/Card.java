@@ -2,7 +2,9 @@ package com.areeba.cms.cmsmircoservice.type;
 
 import com.areeba.cms.cmsmicroservice.type.CardStatus;
 import com.areeba.cms.cmsmircoservice.utils.AttributeEncryptor;
+import com.areeba.cms.cmsmircoservice.utils.PanFormat;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -11,6 +13,13 @@ import org.hibernate.type.SqlTypes;
 import java.time.LocalDate;
 import java.util.UUID;
 
+/**
+ * Card entity.
+ * <p>The PAN is held as the stored ciphertext and decrypted on the first {@link #getCardNumber()} call,
+ * so loading a card (e.g. for the status and expiry checks of a transaction) never decrypts it.
+ * A PAN set through {@link #setCardNumber(String)} is encrypted when the card is written.
+ * Responses are built from {@link #getLast4()} and never need the PAN.</p>
+ */
 @Entity
 @Table(name = "cards")
 @Getter
@@ -32,7 +41,59 @@ public class Card {
     @Column(nullable = false)
     private LocalDate expiry;
 
-    @Convert(converter = AttributeEncryptor.class)
-    @Column(nullable = false, unique = true, length = 512)
+    private static final AttributeEncryptor PAN_ENCRYPTOR = new AttributeEncryptor();
+
+    /** Base64 AES/GCM ciphertext of the PAN, exactly as stored. */
+    @Column(name = "card_number", nullable = false, length = 512)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String encryptedCardNumber;
+
+    /** Plaintext PAN, filled on first access or when set. */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
     private String cardNumber;
+
+    /** Last four digits of the PAN, kept in clear for masking (see {@link PanFormat}). */
+    @Column(nullable = false, length = 4)
+    @Setter(AccessLevel.NONE)
+    private String last4;
+
+    /** Leading 6 or 8 digits of the PAN for BIN-range queries; {@code null} for PANs under 12 digits. */
+    @Column(length = 8)
+    @Setter(AccessLevel.NONE)
+    private String bin;
+
+    /** Keyed blind index of the PAN (see {@code PanBlindIndex}); unique, used for lookup by PAN. */
+    @Column(nullable = false, unique = true, length = 64)
+    private String panHash;
+
+    /**
+     * @return plaintext PAN, decrypted on the first call
+     */
+    public String getCardNumber() {
+        if (cardNumber == null && encryptedCardNumber != null)
+            cardNumber = PAN_ENCRYPTOR.convertToEntityAttribute(encryptedCardNumber);
+        return cardNumber;
+    }
+
+    /**
+     * Sets the PAN along with its {@link #getLast4() last4} and {@link #getBin() BIN}.
+     *
+     * @param cardNumber plaintext PAN; encrypted when the card is next written
+     */
+    public void setCardNumber(String cardNumber) {
+        this.cardNumber = cardNumber;
+        this.encryptedCardNumber = null;
+        this.last4 = cardNumber == null ? null : PanFormat.last4(cardNumber);
+        this.bin = cardNumber == null ? null : PanFormat.bin(cardNumber);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void encryptCardNumber() {
+        if (encryptedCardNumber == null)
+            encryptedCardNumber = PAN_ENCRYPTOR.convertToDatabaseColumn(cardNumber);
+    }
 }
@@ -0,0 +1,11 @@
+package com.areeba.cms.cmsmircoservice.type;
+
+/**
+ * Lifecycle of an {@link AccountHold}: created {@code OPEN}, then exactly one of the terminal states.
+ */
+public enum HoldStatus {
+    OPEN,
+    CAPTURED,
+    RELEASED,
+    EXPIRED
+}
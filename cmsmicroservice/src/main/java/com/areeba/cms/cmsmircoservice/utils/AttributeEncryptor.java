@@ -3,10 +3,6 @@ package com.areeba.cms.cmsmircoservice.utils;
 import jakarta.persistence.AttributeConverter;
 import jakarta.persistence.Converter;
 
-import java.util.Base64;
-
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 /**
  * JPA converter that transparently <b>encrypts</b> String fields on write and <b>decrypts</b> on read.
  * <p>
@@ -17,6 +13,8 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  *   private String cardNumber;
  * }</pre>
  *
+ * {@code Card} calls it directly instead, so the PAN is only decrypted when it is read.
+ *
  * Notes:
  * <ul>
  *   <li>Null-in → null-out (no encryption for nulls).</li>
@@ -37,8 +35,7 @@ public class AttributeEncryptor implements AttributeConverter<String, String> {
     @Override
     public String convertToDatabaseColumn(String plaintext) {
         if (plaintext == null) return null;
-        return Base64.getEncoder()
-                .encodeToString(EncryptorHolder.ENCRYPTOR.encrypt(plaintext.getBytes(UTF_8)));
+        return EncryptorHolder.ENCRYPTOR.encryptToString(plaintext);
     }
 
     /**
@@ -50,7 +47,6 @@ public class AttributeEncryptor implements AttributeConverter<String, String> {
     @Override
     public String convertToEntityAttribute(String columnValue) {
         if (columnValue == null) return null;
-        byte[] cipher = Base64.getDecoder().decode(columnValue);
-        return new String(EncryptorHolder.ENCRYPTOR.decrypt(cipher), UTF_8);
+        return EncryptorHolder.ENCRYPTOR.decryptString(columnValue);
     }
 }
\ No newline at end of file
@@ -1,10 +1,9 @@
 package com.areeba.cms.cmsmircoservice.utils;
 
-import org.springframework.security.crypto.encrypt.BytesEncryptor;
 import org.springframework.stereotype.Component;
 
 /**
- * Holds a shared {@link BytesEncryptor} for spots that aren’t Spring-managed
+ * Holds a shared {@link FieldEncryptor} for spots that aren’t Spring-managed
  * (e.g., JPA {@code AttributeConverter}s).
  * <p>Spring wires the encryptor once at startup; the static reference lets
  * converters reach it without DI.</p>
@@ -13,7 +12,7 @@ import org.springframework.stereotype.Component;
 public class EncryptorHolder {
 
     /** Shared encryptor instance, set once at application start. */
-    static BytesEncryptor ENCRYPTOR;
+    static FieldEncryptor ENCRYPTOR;
 
     /**
      * Constructor injection by Spring. Assigns the static reference used by
@@ -21,7 +20,7 @@ public class EncryptorHolder {
      *
      * @param enc the application’s encryptor
      */
-    EncryptorHolder(BytesEncryptor enc) {
+    EncryptorHolder(FieldEncryptor enc) {
         ENCRYPTOR = enc;
     }
 }
@@ -0,0 +1,132 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+import org.springframework.security.crypto.codec.Hex;
+import org.springframework.security.crypto.encrypt.BytesEncryptor;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * AES/GCM field encryption used for the stored PAN.
+ * <p>
+ * Produces and reads exactly what Spring's {@code AesBytesEncryptor} does in GCM mode with a 12-byte IV:
+ * {@code IV (12 bytes) || ciphertext || tag (16 bytes)}, key derived with PBKDF2WithHmacSHA1
+ * (1024 iterations, 256 bits) from the password and hex salt. Existing ciphertext stays readable.
+ * </p>
+ * Compared to {@code AesBytesEncryptor}:
+ * <ul>
+ *   <li>The key is derived once; ciphers come from a pool instead of one {@code synchronized}
+ *       cipher pair, so concurrent card loads do not queue behind each other.</li>
+ *   <li>Ciphertext is written straight after the IV in the output array, and decryption reads IV and
+ *       ciphertext in place, with no intermediate copies.</li>
+ *   <li>{@link #encryptToString(String)} and {@link #decryptString(String)} do the Base64 column
+ *       handling of {@link AttributeEncryptor} directly.</li>
+ * </ul>
+ */
+public final class FieldEncryptor implements BytesEncryptor {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey secretKey;
+    private final InstancePool<Engine> engines;
+
+    public FieldEncryptor(SecretKey secretKey) {
+        this.secretKey = secretKey;
+        this.engines = new InstancePool<>(Engine::create);
+    }
+
+    /**
+     * Derives the AES key the same way {@code AesBytesEncryptor(password, salt)} does.
+     *
+     * @param password encryption password
+     * @param saltHex  hex-encoded salt
+     * @return encryptor holding the derived key
+     */
+    public static FieldEncryptor fromPassword(String password, CharSequence saltHex) {
+        try {
+            PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), Hex.decode(saltHex), 1024, 256);
+            byte[] key = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1").generateSecret(spec).getEncoded();
+            return new FieldEncryptor(new SecretKeySpec(key, "AES"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Cannot derive the field encryption key", e);
+        }
+    }
+
+    @Override
+    public byte[] encrypt(byte[] plaintext) {
+        Engine engine = engines.borrow();
+        try {
+            byte[] iv = new byte[IV_LENGTH];
+            engine.random.nextBytes(iv);
+            engine.cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_BITS, iv));
+            byte[] out = new byte[IV_LENGTH + plaintext.length + TAG_BITS / 8];
+            System.arraycopy(iv, 0, out, 0, IV_LENGTH);
+            engine.cipher.doFinal(plaintext, 0, plaintext.length, out, IV_LENGTH);
+            engines.release(engine);
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt", e);
+        }
+    }
+
+    /**
+     * @throws IllegalStateException if the input is too short or fails authentication
+     */
+    @Override
+    public byte[] decrypt(byte[] encrypted) {
+        if (encrypted.length < IV_LENGTH + TAG_BITS / 8)
+            throw new IllegalStateException("Unable to decrypt: ciphertext too short");
+        Engine engine = engines.borrow();
+        try {
+            engine.cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_BITS, encrypted, 0, IV_LENGTH));
+            byte[] plaintext = engine.cipher.doFinal(encrypted, IV_LENGTH, encrypted.length - IV_LENGTH);
+            engines.release(engine);
+            return plaintext;
+        } catch (GeneralSecurityException e) {
+            // The cipher is re-initialized on every use, but a failed one is simply not returned
+            throw new IllegalStateException("Unable to decrypt", e);
+        }
+    }
+
+    /**
+     * @param plaintext UTF-8 text
+     * @return Base64 of the encrypted text
+     */
+    public String encryptToString(String plaintext) {
+        return Base64.getEncoder().encodeToString(encrypt(plaintext.getBytes(UTF_8)));
+    }
+
+    /**
+     * @param base64 output of {@link #encryptToString(String)} (or of {@code AesBytesEncryptor} + Base64)
+     * @return decrypted text
+     */
+    public String decryptString(String base64) {
+        return new String(decrypt(Base64.getDecoder().decode(base64)), UTF_8);
+    }
+
+    /**
+     * A cipher and its IV source. The default {@code SecureRandom} measured faster per IV than a
+     * per-engine DRBG, even though its instances share one entropy source.
+     */
+    private record Engine(Cipher cipher, SecureRandom random) {
+
+        static Engine create() {
+            try {
+                return new Engine(Cipher.getInstance(TRANSFORMATION), new SecureRandom());
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + TRANSFORMATION, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free pool of reusable, non-thread-safe objects (e.g. {@code Cipher}, {@code Mac}).
+ * <p>
+ * Requests run on virtual threads, one per request, so a {@link ThreadLocal} cache would build a new
+ * instance for nearly every call. The pool keeps up to {@code maxIdle} instances across threads
+ * instead; when it is empty a new instance is created, when it is full a released one is dropped.
+ * </p>
+ *
+ * @param <T> pooled type
+ */
+final class InstancePool<T> {
+
+    private final Queue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final Supplier<T> factory;
+    private final int maxIdle;
+
+    InstancePool(Supplier<T> factory, int maxIdle) {
+        this.factory = factory;
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Sized for the carrier threads that can use instances at the same time.
+     */
+    InstancePool(Supplier<T> factory) {
+        this(factory, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return an idle instance, or a new one if none is idle
+     */
+    T borrow() {
+        T instance = idle.poll();
+        if (instance == null) return factory.get();
+        idleCount.decrementAndGet();
+        return instance;
+    }
+
+    /**
+     * Returns an instance for reuse. Only instances left in a clean state may be released.
+     *
+     * @param instance instance obtained from {@link #borrow()}
+     */
+    void release(T instance) {
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idle.offer(instance);
+    }
+}
@@ -0,0 +1,99 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+import com.areeba.cms.cmsmircoservice.exception.InvalidCursorException;
+
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursors for keyset pagination.
+ * <p>A cursor is the URL-safe Base64 (no padding) of the last key of a page; the next page is read with
+ * {@code key > cursor} on an index, so every page costs the same however deep it is. Keys are either an id or a
+ * {@link Position} (a timestamp and the id breaking ties). Clients must treat cursors as opaque.</p>
+ */
+public final class KeysetCursor {
+
+    /** Sorts before every uuid in Postgres, which compares uuids bytewise; used when there is no cursor. */
+    public static final UUID FIRST_ID = new UUID(0, 0);
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * @param id last id of a page
+     * @return 22-character cursor
+     */
+    public static String encode(UUID id) {
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @param cursor value from {@link #encode(UUID)}, or {@code null} for the first page
+     * @return the id to continue after
+     * @throws InvalidCursorException if the cursor is not one this class produced
+     */
+    public static UUID decodeId(String cursor) {
+        if (cursor == null) return FIRST_ID;
+        byte[] bytes = decode(cursor, 16);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * @param time timestamp of the last row of a page
+     * @param id   id of that row
+     * @return 38-character cursor
+     */
+    public static String encode(Instant time, UUID id) {
+        byte[] bytes = ByteBuffer.allocate(28)
+                .putLong(time.getEpochSecond())
+                .putInt(time.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * @param cursor value from {@link #encode(Instant, UUID)}
+     * @return the position to continue after
+     * @throws InvalidCursorException if the cursor is not one this class produced
+     */
+    public static Position decodePosition(String cursor) {
+        ByteBuffer buffer = ByteBuffer.wrap(decode(cursor, 28));
+        Instant time;
+        try {
+            time = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        } catch (DateTimeException ex) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        return new Position(time, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    private static byte[] decode(String cursor, int length) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+        if (bytes.length != length) throw new InvalidCursorException("Invalid cursor: " + cursor);
+        return bytes;
+    }
+
+    /**
+     * Keyset position on {@code (time, id)}.
+     *
+     * @param time timestamp of the last row read
+     * @param id   id of that row
+     */
+    public record Position(Instant time, UUID id) {
+    }
+}
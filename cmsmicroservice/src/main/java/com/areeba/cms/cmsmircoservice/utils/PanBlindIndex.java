@@ -0,0 +1,62 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+import com.areeba.cms.cmsmircoservice.config.CryptoProperties;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keyed blind index for PANs: hex HMAC-SHA256 of the PAN with spaces and dashes removed.
+ * <p>
+ * PANs are encrypted with a random IV, so equal PANs never share a ciphertext. The blind index is
+ * deterministic, so it backs the unique constraint and the lookup by PAN, and without the key
+ * ({@code cms.areeba.crypto.index-key}) it reveals nothing about the PAN.
+ * </p>
+ * Notes:
+ * <ul>
+ *   <li>The key is separate from the encryption password and must never change once cards exist.</li>
+ *   <li>{@link Mac} is not thread-safe; instances are pooled (see {@link InstancePool}).</li>
+ * </ul>
+ */
+@Component
+public class PanBlindIndex {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final InstancePool<Mac> macs;
+
+    public PanBlindIndex(CryptoProperties cryptoProperties) {
+        String indexKey = cryptoProperties.getIndexKey();
+        if (indexKey == null || indexKey.isBlank())
+            throw new IllegalStateException("cms.areeba.crypto.index-key must be set");
+        SecretKeySpec key = new SecretKeySpec(indexKey.getBytes(UTF_8), ALGORITHM);
+        this.macs = new InstancePool<>(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Cannot initialize " + ALGORITHM, e);
+            }
+        });
+    }
+
+    /**
+     * Computes the blind index of a PAN.
+     *
+     * @param pan raw PAN, may contain spaces or dashes
+     * @return 64-character lowercase hex digest
+     */
+    public String hash(String pan) {
+        Mac mac = macs.borrow();
+        byte[] digest = mac.doFinal(PanFormat.normalize(pan).getBytes(UTF_8));
+        macs.release(mac);
+        return HexFormat.of().formatHex(digest);
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.areeba.cms.cmsmircoservice.utils;
+
+/**
+ * Clear-text parts of a PAN that may be kept next to its ciphertext.
+ * <p>Follows the PCI DSS truncation limits: the last four digits, plus the first eight digits for PANs
+ * of 16 or more digits and the first six otherwise.</p>
+ */
+public final class PanFormat {
+
+    private PanFormat() {
+    }
+
+    /**
+     * @param pan raw PAN
+     * @return the PAN with spaces and dashes removed
+     */
+    public static String normalize(String pan) {
+        StringBuilder digits = new StringBuilder(pan.length());
+        for (int i = 0; i < pan.length(); i++) {
+            char c = pan.charAt(i);
+            if (c != ' ' && c != '-') digits.append(c);
+        }
+        return digits.toString();
+    }
+
+    /**
+     * @param pan raw PAN
+     * @return last four digits, or the whole PAN if it is shorter
+     */
+    public static String last4(String pan) {
+        String digits = normalize(pan);
+        return digits.substring(Math.max(0, digits.length() - 4));
+    }
+
+    /**
+     * @param pan raw PAN
+     * @return BIN (first 8 digits of a PAN of 16+ digits, first 6 of a PAN of 12+), or {@code null} for shorter PANs
+     */
+    public static String bin(String pan) {
+        String digits = normalize(pan);
+        if (digits.length() >= 16) return digits.substring(0, 8);
+        if (digits.length() >= 12) return digits.substring(0, 6);
+        return null;
+    }
+
+    /**
+     * @param last4 value of {@link #last4(String)}
+     * @return {@code "**** **** **** 1234"}, or {@code "****"} if fewer than four digits are known
+     */
+    public static String mask(String last4) {
+        return (last4 == null || last4.length() < 4) ? "****" : "**** **** **** " + last4;
+    }
+}
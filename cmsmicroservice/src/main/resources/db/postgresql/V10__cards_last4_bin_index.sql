@@ -0,0 +1,2 @@
+alter table cards alter column last4 set not null;
+create index if not exists ix_cards_bin on cards(bin);
@@ -0,0 +1,5 @@
+-- History pages and exports seek and scan (account_id | card_id, transaction_date, id) in index order
+create index if not exists ix_tx_account_date_id on transactions(account_id, transaction_date, id);
+create index if not exists ix_tx_card_date_id on transactions(card_id, transaction_date, id);
+drop index if exists ix_tx_account_date;
+drop index if exists ix_tx_card_date;
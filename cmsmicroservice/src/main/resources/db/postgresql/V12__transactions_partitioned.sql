@@ -0,0 +1,36 @@
+-- Range-partition transactions by month of transaction_date.
+-- The existing table is attached as transactions_legacy, bounded above by the start of the month after its newest row,
+-- so no rows are copied. TransactionPartitionMaintenance creates the monthly partitions (transactions_pYYYYMM) from there
+-- on and drops those past retention; transactions_default only catches rows no partition covers.
+alter table transactions rename to transactions_legacy;
+-- A partition's primary key must include the partition column
+alter table transactions_legacy drop constraint transactions_pkey,
+    add constraint transactions_legacy_pkey primary key (id, transaction_date);
+alter index ix_tx_account_date_id rename to transactions_legacy_account_date_id_idx;
+alter index ix_tx_card_date_id rename to transactions_legacy_card_date_id_idx;
+
+create table transactions (
+    id uuid not null default gen_random_uuid(),
+    account_id uuid not null references accounts(id),
+    card_id uuid not null references cards(id),
+    transaction_amount numeric(19,2) not null,
+    transaction_type varchar(1) not null,
+    transaction_date timestamptz not null,
+    response varchar(16) not null,
+    primary key (id, transaction_date)
+    ) partition by range (transaction_date);
+create index ix_tx_account_date_id on transactions(account_id, transaction_date, id);
+create index ix_tx_card_date_id on transactions(card_id, transaction_date, id);
+
+do $$
+declare
+    bound timestamptz;
+begin
+    select (greatest(date_trunc('month', now() at time zone 'UTC'),
+                     date_trunc('month', max(transaction_date) at time zone 'UTC')) + interval '1 month') at time zone 'UTC'
+    into bound
+    from transactions_legacy;
+    execute format('alter table transactions attach partition transactions_legacy for values from (minvalue) to (%L)', bound);
+end $$;
+
+create table transactions_default partition of transactions default;
@@ -0,0 +1,13 @@
+alter table accounts add column if not exists reserved numeric(19,2) not null default 0;
+
+create table if not exists account_holds (
+    id uuid primary key default gen_random_uuid(),
+    account_id uuid not null references accounts(id) on delete cascade,
+    card_id uuid not null references cards(id) on delete cascade,
+    amount numeric(19,2) not null,
+    status varchar(16) not null,
+    created_at timestamptz not null,
+    expires_at timestamptz not null
+    );
+create index if not exists ix_holds_account on account_holds(account_id);
+create index if not exists ix_holds_open_expiry on account_holds(expires_at) where status = 'OPEN';
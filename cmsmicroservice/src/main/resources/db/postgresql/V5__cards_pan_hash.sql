@@ -0,0 +1,2 @@
+-- Keyed blind index of the PAN; V6 fills it for existing cards, V7 makes it mandatory and unique
+alter table cards add column if not exists pan_hash varchar(64);
@@ -0,0 +1,4 @@
+alter table cards alter column pan_hash set not null;
+create unique index if not exists ux_cards_pan_hash on cards(pan_hash);
+-- Uniqueness of the (randomly salted) ciphertext never prevented a duplicate PAN
+alter table cards drop constraint if exists cards_card_number_key;
@@ -0,0 +1,4 @@
+-- Clear-text PAN parts (see PanFormat); V9 fills them for existing cards, V10 indexes them.
+-- "C" collation keeps BIN comparisons digit-wise whatever the database locale.
+alter table cards add column if not exists last4 varchar(4);
+alter table cards add column if not exists bin varchar(8) collate "C";
@@ -5,6 +5,7 @@ import com.areeba.cms.cmsmicroservice.type.AccountResponse;
 import com.areeba.cms.cmsmicroservice.type.AccountStatus;
 import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
 import com.areeba.cms.cmsmircoservice.accounts.service.impl.AccountServiceImpl;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.type.Account;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,9 @@ public class AccountServiceTest {
     @Mock
     private AccountRepository accountRepository;
 
+    @Mock
+    private CardEligibilityCache cardEligibilityCache;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -138,6 +142,7 @@ public class AccountServiceTest {
 
         verify(accountRepository).findById(id);
         verify(accountRepository).deleteById(id);
+        verify(cardEligibilityCache).evictAccount(id);
     }
 
     @Test
@@ -149,6 +154,7 @@ public class AccountServiceTest {
 
         verify(accountRepository).findById(id);
         verify(accountRepository, never()).deleteById(any());
+        verifyNoInteractions(cardEligibilityCache);
     }
 
 }
@@ -0,0 +1,167 @@
+package com.areeba.cms.cmsmircoservice.Cards;
+
+import com.areeba.cms.cmsmicroservice.type.CardStatus;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
+import com.areeba.cms.cmsmircoservice.config.CardProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CardEligibilityCacheTest {
+
+    @Mock
+    CardRepository cardRepository;
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    CardProperties cardProperties = new CardProperties();
+    SimpleMeterRegistry meterRegistry;
+
+    CardEligibilityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CardEligibilityCache(cardRepository, jdbcTemplate, cardProperties, meterRegistry);
+    }
+
+    private static CardEligibility card(UUID accountId) {
+        return new CardEligibility(UUID.randomUUID(), CardStatus.ACTIVE, LocalDate.now().plusYears(1), accountId);
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("cms.cards.eligibility.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void find_secondLookupIsServedFromCache() {
+        CardEligibility card = card(UUID.randomUUID());
+        when(cardRepository.findEligibilityById(card.id())).thenReturn(Optional.of(card));
+
+        assertEquals(Optional.of(card), cache.find(card.id()));
+        assertEquals(Optional.of(card), cache.find(card.id()));
+
+        verify(cardRepository, times(1)).findEligibilityById(card.id());
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void find_missingCardIsNotCached() {
+        UUID cardId = UUID.randomUUID();
+        when(cardRepository.findEligibilityById(cardId)).thenReturn(Optional.empty());
+
+        assertTrue(cache.find(cardId).isEmpty());
+        assertTrue(cache.find(cardId).isEmpty());
+
+        verify(cardRepository, times(2)).findEligibilityById(cardId);
+    }
+
+    @Test
+    void find_expiredEntryIsReloaded() {
+        cardProperties.getEligibilityCache().setTtl(Duration.ZERO);
+        setUp();
+        CardEligibility card = card(UUID.randomUUID());
+        when(cardRepository.findEligibilityById(card.id())).thenReturn(Optional.of(card));
+
+        cache.find(card.id());
+        cache.find(card.id());
+
+        verify(cardRepository, times(2)).findEligibilityById(card.id());
+    }
+
+    @Test
+    void evictCard_dropsEntryAndBroadcasts() {
+        CardEligibility card = card(UUID.randomUUID());
+        CardEligibility deactivated = new CardEligibility(card.id(), CardStatus.INACTIVE, card.expiry(), card.accountId());
+        when(cardRepository.findEligibilityById(card.id())).thenReturn(Optional.of(card), Optional.of(deactivated));
+
+        cache.find(card.id());
+        cache.evictCard(card.id());
+
+        assertEquals(CardStatus.INACTIVE, cache.find(card.id()).orElseThrow().status());
+        verify(jdbcTemplate).query(eq("select pg_notify(?, ?)"), any(RowCallbackHandler.class), eq("cms_card_eligibility"), eq("card:" + card.id()));
+    }
+
+    @Test
+    void evictCard_loadRacingTheWriteIsNotCached() {
+        CardEligibility card = card(UUID.randomUUID());
+        // The write invalidates while the load is reading the old row
+        when(cardRepository.findEligibilityById(card.id())).thenAnswer(inv -> {
+            cache.evictCard(card.id());
+            return Optional.of(card);
+        }).thenReturn(Optional.of(card));
+
+        cache.find(card.id());
+        cache.find(card.id());
+
+        verify(cardRepository, times(2)).findEligibilityById(card.id());
+    }
+
+    @Test
+    void evictAccount_dropsOnlyThatAccountsCards() {
+        UUID accountId = UUID.randomUUID();
+        CardEligibility first = card(accountId);
+        CardEligibility second = card(accountId);
+        CardEligibility other = card(UUID.randomUUID());
+        when(cardRepository.findEligibilityByIdIn(any())).thenReturn(List.of(first, second, other));
+        cache.findAll(Set.of(first.id(), second.id(), other.id()));
+
+        cache.evictAccount(accountId);
+        when(cardRepository.findEligibilityByIdIn(List.of(first.id()))).thenReturn(List.of(first));
+        Map<UUID, CardEligibility> found = cache.findAll(List.of(first.id(), other.id()));
+
+        assertEquals(Map.of(first.id(), first, other.id(), other), found);
+        verify(cardRepository).findEligibilityByIdIn(List.of(first.id()));
+        assertEquals(1, requests("hit"));
+        assertEquals(4, requests("miss"));
+    }
+
+    @Test
+    void store_beyondMaxSizeTrimsToNinetyPercent() {
+        cardProperties.getEligibilityCache().setMaxSize(100);
+        setUp();
+        when(cardRepository.findEligibilityById(any())).thenAnswer(inv -> Optional.of(
+                new CardEligibility(inv.getArgument(0), CardStatus.ACTIVE, LocalDate.now().plusYears(1), UUID.randomUUID())));
+
+        for (int i = 0; i < 101; i++) cache.find(UUID.randomUUID());
+
+        assertEquals(90, meterRegistry.get("cms.cards.eligibility.cache.size").gauge().value());
+    }
+
+    @Test
+    void disabled_alwaysReadsTheRepository() {
+        cardProperties.getEligibilityCache().setEnabled(false);
+        setUp();
+        CardEligibility card = card(UUID.randomUUID());
+        when(cardRepository.findEligibilityById(card.id())).thenReturn(Optional.of(card));
+
+        cache.find(card.id());
+        cache.find(card.id());
+        cache.evictCard(card.id());
+
+        verify(cardRepository, times(2)).findEligibilityById(card.id());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -3,19 +3,28 @@ package com.areeba.cms.cmsmircoservice.Cards;
 import com.areeba.cms.cmsmicroservice.type.*;
 import com.areeba.cms.cmsmircoservice.accounts.service.AccountService;
 import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
 import com.areeba.cms.cmsmircoservice.cards.service.impl.CardServiceImpl;
+import com.areeba.cms.cmsmircoservice.config.CryptoProperties;
+import com.areeba.cms.cmsmircoservice.exception.InvalidCursorException;
+import com.areeba.cms.cmsmircoservice.exception.ResourceConflictException;
 import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
 import com.areeba.cms.cmsmircoservice.type.Account;
 import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.utils.KeysetCursor;
+import com.areeba.cms.cmsmircoservice.utils.PanBlindIndex;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -35,9 +44,21 @@ public class CardServiceTest {
     @Mock
     AccountService accountService;
 
+    @Mock
+    CardEligibilityCache cardEligibilityCache;
+
+    @Spy
+    PanBlindIndex panBlindIndex = new PanBlindIndex(cryptoProperties());
+
     @InjectMocks
     CardServiceImpl service;
 
+    private static CryptoProperties cryptoProperties() {
+        CryptoProperties props = new CryptoProperties();
+        props.setIndexKey("test-index-key");
+        return props;
+    }
+
     @Test
     void createCardService_OK() {
         UUID accountId = UUID.randomUUID();
@@ -71,11 +92,48 @@ public class CardServiceTest {
         Card saved = captor.getValue();
         assertSame(acc, saved.getAccount());
         assertEquals("4111111111111234", saved.getCardNumber());
+        assertEquals("1234", saved.getLast4());
+        assertEquals("41111111", saved.getBin());
+        assertEquals(panBlindIndex.hash("4111 1111-1111 1234"), saved.getPanHash());
+        assertEquals(64, saved.getPanHash().length());
         assertEquals(CardStatus.INACTIVE, saved.getStatus());
 
         verify(accountService).requireAccount(accountId);
     }
 
+    @Test
+    void createCardService_duplicatePan_throwsConflict() {
+        UUID accountId = UUID.randomUUID();
+        when(accountService.requireAccount(accountId)).thenReturn(new Account());
+        when(cardRepository.existsByPanHash(panBlindIndex.hash("4111111111111234"))).thenReturn(true);
+
+        CardCreateRequest req = new CardCreateRequest();
+        req.setAccountId(accountId);
+        req.setCardNumber("4111111111111234");
+        req.setExpiry(LocalDate.now().plusYears(2));
+
+        assertThrows(ResourceConflictException.class, () -> service.createCardService(req));
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void findCardByNumberService() {
+        UUID cardId = UUID.randomUUID();
+        Card card = new Card();
+        card.setId(cardId);
+        card.setAccount(new Account());
+        card.setStatus(CardStatus.ACTIVE);
+        card.setCardNumber("5555444433332222");
+
+        when(cardRepository.findByPanHash(panBlindIndex.hash("5555444433332222"))).thenReturn(Optional.of(card));
+
+        CardResponse res = service.findCardByNumberService("5555 4444 3333 2222");
+
+        assertEquals(cardId, res.getId());
+        assertEquals("**** **** **** 2222", res.getMaskedCard());
+        assertThrows(ResourceNotFoundException.class, () -> service.findCardByNumberService("4000000000000002"));
+    }
+
     @Test
     void activateCardService() {
         UUID cardId = UUID.randomUUID();
@@ -91,6 +149,7 @@ public class CardServiceTest {
         assertEquals(CardStatus.ACTIVE, card.getStatus());
         verify(cardRepository).findById(cardId);
         verify(cardRepository, never()).save(any());
+        verify(cardEligibilityCache).evictCard(cardId);
     }
 
     @Test
@@ -108,6 +167,7 @@ public class CardServiceTest {
         assertEquals(CardStatus.INACTIVE, card.getStatus());
         verify(cardRepository).findById(cardId);
         verify(cardRepository, never()).save(any());
+        verify(cardEligibilityCache).evictCard(cardId);
     }
 
     @Test
@@ -214,7 +274,7 @@ public class CardServiceTest {
                     return new PageImpl<>(content, pageable, 123);
                 });
 
-        CardIdPage res = service.listCardIds(-1, 999);
+        CardIdPage res = service.listCardIds(-1, 999, null, null);
 
         assertEquals(0, res.getPage());
         assertEquals(50, res.getSize());
@@ -231,5 +291,71 @@ public class CardServiceTest {
         assertNotNull(order);
         assertTrue(order.isAscending());
     }
-}
 
+    @Test
+    void listCardIds_byBinRange() {
+        when(cardRepository.findIdsByBinRange(eq("411111"), eq("411111:"), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(List.of(UUID.randomUUID()), inv.getArgument(2), 1));
+
+        CardIdPage res = service.listCardIds(0, 10, "411111", "411111");
+
+        assertEquals(1, res.getCardIds().size());
+        verify(cardRepository, never()).findAllIds(any());
+    }
+
+    @Test
+    void listCardIdsAfter_firstPageReadsOneExtraRowForTheCursor() {
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(cardRepository.findIdsAfter(KeysetCursor.FIRST_ID, Limit.of(3))).thenReturn(ids);
+
+        CardIdCursorPage res = service.listCardIdsAfter(null, 2, false);
+
+        assertEquals(ids.subList(0, 2), res.getCardIds());
+        assertTrue(res.getHasNext());
+        assertEquals(ids.get(1), KeysetCursor.decodeId(res.getNextCursor()));
+        assertNull(res.getTotalElements());
+        verify(cardRepository, never()).count();
+    }
+
+    @Test
+    void listCardIdsByAccountAfter_lastPageWithCount() {
+        UUID accountId = UUID.randomUUID();
+        UUID after = UUID.randomUUID();
+        UUID last = UUID.randomUUID();
+        when(accountService.requireAccount(accountId)).thenReturn(new Account());
+        when(cardRepository.findCardIdsByAccountIdAfter(accountId, after, Limit.of(1001))).thenReturn(List.of(last));
+        when(cardRepository.countByAccountId(accountId)).thenReturn(1001L);
+
+        CardIdCursorPage res = service.listCardIdsByAccountAfter(accountId, KeysetCursor.encode(after), 5000, true);
+
+        assertEquals(List.of(last), res.getCardIds());
+        assertEquals(1000, res.getSize());
+        assertFalse(res.getHasNext());
+        assertNull(res.getNextCursor());
+        assertEquals(1001L, res.getTotalElements());
+    }
+
+    @Test
+    void listCardIdsAfter_malformedCursorRejected() {
+        // Not Base64, and Base64 of the wrong length
+        assertThrows(InvalidCursorException.class, () -> service.listCardIdsAfter("not a cursor!", 10, false));
+        assertThrows(InvalidCursorException.class, () -> service.listCardIdsAfter("AAAA", 10, false));
+        verify(cardRepository, never()).findIdsAfter(any(), any());
+    }
+
+    @Test
+    void getCardService_masksFromLast4WithoutDecrypting() {
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(new Account());
+        card.setCardNumber("5555-4444-3333-2222");
+        // As loaded: only the ciphertext is set, and any decryption attempt would fail
+        ReflectionTestUtils.setField(card, "cardNumber", null);
+        ReflectionTestUtils.setField(card, "encryptedCardNumber", "not-decryptable");
+
+        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+
+        assertEquals("**** **** **** 2222", service.getCardService(card.getId()).getMaskedCard());
+        assertEquals("55554444", card.getBin());
+    }
+}
@@ -0,0 +1,54 @@
+package com.areeba.cms.cmsmircoservice.Cards;
+
+import com.areeba.cms.cmsmircoservice.utils.FieldEncryptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.encrypt.AesBytesEncryptor;
+import org.springframework.security.crypto.keygen.KeyGenerators;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FieldEncryptorTest {
+
+    private static final String PASSWORD = "changeThis";
+    private static final String SALT_HEX = "3f1c7a5d2b9e44f0aa11bb22cc33dd44";
+    private static final String PAN = "4111111111111234";
+
+    private final FieldEncryptor fieldEncryptor = FieldEncryptor.fromPassword(PASSWORD, SALT_HEX);
+    private final AesBytesEncryptor springAes = new AesBytesEncryptor(PASSWORD, SALT_HEX,
+            KeyGenerators.secureRandom(12), AesBytesEncryptor.CipherAlgorithm.GCM);
+
+    @Test
+    void readsCiphertextWrittenByAesBytesEncryptor() {
+        String stored = Base64.getEncoder().encodeToString(springAes.encrypt(PAN.getBytes(UTF_8)));
+
+        assertEquals(PAN, fieldEncryptor.decryptString(stored));
+    }
+
+    @Test
+    void writesCiphertextReadableByAesBytesEncryptor() {
+        String stored = fieldEncryptor.encryptToString(PAN);
+
+        assertEquals(PAN, new String(springAes.decrypt(Base64.getDecoder().decode(stored)), UTF_8));
+        assertEquals(12 + PAN.length() + 16, Base64.getDecoder().decode(stored).length);
+    }
+
+    @Test
+    void usesFreshIvPerEncryption() {
+        assertNotEquals(fieldEncryptor.encryptToString(PAN), fieldEncryptor.encryptToString(PAN));
+    }
+
+    @Test
+    void rejectsTamperedOrForeignCiphertext() {
+        byte[] encrypted = fieldEncryptor.encrypt(PAN.getBytes(UTF_8));
+        encrypted[encrypted.length - 1] ^= 1;
+
+        assertThrows(IllegalStateException.class, () -> fieldEncryptor.decrypt(encrypted));
+        assertThrows(IllegalStateException.class, () -> FieldEncryptor.fromPassword("other", SALT_HEX)
+                .decryptString(fieldEncryptor.encryptToString(PAN)));
+        // The failed attempts leave the encryptor usable
+        assertEquals(PAN, fieldEncryptor.decryptString(fieldEncryptor.encryptToString(PAN)));
+    }
+}
@@ -0,0 +1,169 @@
+package com.areeba.cms.cmsmircoservice.Holds;
+
+import com.areeba.cms.cmsmicroservice.type.AccountStatus;
+import com.areeba.cms.cmsmicroservice.type.CardStatus;
+import com.areeba.cms.cmsmicroservice.type.TransactionCreateRequest;
+import com.areeba.cms.cmsmicroservice.type.TransactionType;
+import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.config.HoldProperties;
+import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
+import com.areeba.cms.cmsmircoservice.holds.repo.AccountHoldRepository;
+import com.areeba.cms.cmsmircoservice.holds.service.impl.AccountHoldServiceImpl;
+import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
+import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.type.HoldStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AccountHoldServiceTest {
+
+    @Mock
+    AccountHoldRepository accountHoldRepository;
+    @Mock
+    AccountRepository accountRepository;
+    @Mock
+    CardRepository cardRepository;
+
+    AccountHoldServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        HoldProperties holdProperties = new HoldProperties();
+        holdProperties.setTtl(Duration.ofMinutes(5));
+        service = new AccountHoldServiceImpl(accountHoldRepository, accountRepository, cardRepository, holdProperties);
+    }
+
+    private static Account account(String balance) {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private static CardEligibility card(Account account) {
+        return new CardEligibility(UUID.randomUUID(), CardStatus.ACTIVE, LocalDate.now().plusYears(1), account.getId());
+    }
+
+    private static TransactionCreateRequest debit(Account account, String amount) {
+        TransactionCreateRequest request = new TransactionCreateRequest();
+        request.setAccountId(account.getId());
+        request.setCardId(UUID.randomUUID());
+        request.setTransactionAmount(new BigDecimal(amount));
+        request.setTransactionType(TransactionType.D);
+        return request;
+    }
+
+    private static AccountHold hold(Account account, String amount) {
+        AccountHold hold = new AccountHold();
+        hold.setId(UUID.randomUUID());
+        hold.setAccount(account);
+        hold.setAmount(new BigDecimal(amount));
+        return hold;
+    }
+
+    @Test
+    void placeHold_reservesAndRecordsOpenHold() {
+        Account account = account("500.00");
+        CardEligibility card = card(account);
+        Card cardRef = new Card();
+        var request = debit(account, "100.00");
+        when(accountRepository.reserve(account.getId(), request.getTransactionAmount(), AccountStatus.ACTIVE)).thenReturn(1);
+        when(accountRepository.getReferenceById(account.getId())).thenReturn(account);
+        when(cardRepository.getReferenceById(card.id())).thenReturn(cardRef);
+        when(accountHoldRepository.save(any(AccountHold.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        AccountHold hold = service.placeHold(request, card);
+
+        assertEquals(HoldStatus.OPEN, hold.getStatus());
+        assertSame(account, hold.getAccount());
+        assertSame(cardRef, hold.getCard());
+        assertEquals(0, hold.getAmount().compareTo(new BigDecimal("100.00")));
+        assertEquals(Duration.ofMinutes(5), Duration.between(hold.getCreatedAt(), hold.getExpiresAt()));
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void placeHold_insufficientAvailableBalance() {
+        Account account = account("50.00");
+        CardEligibility card = card(account);
+        var request = debit(account, "100.00");
+        when(accountRepository.reserve(account.getId(), request.getTransactionAmount(), AccountStatus.ACTIVE)).thenReturn(0);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        TransactionRejectedException ex = assertThrows(TransactionRejectedException.class, () -> service.placeHold(request, card));
+
+        assertEquals("Insufficient balance", ex.getMessage());
+        verify(accountHoldRepository, never()).save(any());
+    }
+
+    @Test
+    void captureHold_debitsBalanceAndReserved() {
+        Account account = account("500.00");
+        AccountHold hold = hold(account, "100.00");
+        when(accountHoldRepository.transition(hold.getId(), HoldStatus.OPEN, HoldStatus.CAPTURED)).thenReturn(1);
+
+        service.captureHold(hold);
+
+        verify(accountRepository).captureReserved(eq(account.getId()), eq(hold.getAmount()), any(Instant.class));
+    }
+
+    @Test
+    void captureHold_expiredHoldRejected() {
+        AccountHold hold = hold(account("500.00"), "100.00");
+        when(accountHoldRepository.transition(hold.getId(), HoldStatus.OPEN, HoldStatus.CAPTURED)).thenReturn(0);
+
+        TransactionRejectedException ex = assertThrows(TransactionRejectedException.class, () -> service.captureHold(hold));
+
+        assertEquals("Authorization hold expired", ex.getMessage());
+        verify(accountRepository, never()).captureReserved(any(), any(), any());
+    }
+
+    @Test
+    void releaseHold_onlyOnceWhenAlreadyClosed() {
+        AccountHold hold = hold(account("500.00"), "100.00");
+        when(accountHoldRepository.transition(hold.getId(), HoldStatus.OPEN, HoldStatus.RELEASED)).thenReturn(0);
+
+        service.releaseHold(hold);
+
+        verify(accountRepository, never()).releaseReserved(any(), any());
+    }
+
+    @Test
+    void expireHolds_releasesOneUpdatePerAccount() {
+        Account first = account("500.00");
+        Account second = account("500.00");
+        List<AccountHold> expired = List.of(hold(first, "10.00"), hold(first, "15.00"), hold(second, "7.50"));
+        Instant now = Instant.now();
+        when(accountHoldRepository.findExpiredForUpdate(HoldStatus.OPEN, now, Limit.of(100))).thenReturn(expired);
+
+        int count = service.expireHolds(now, 100);
+
+        assertEquals(3, count);
+        expired.forEach(h -> assertEquals(HoldStatus.EXPIRED, h.getStatus()));
+        verify(accountRepository).releaseReserved(first.getId(), new BigDecimal("25.00"));
+        verify(accountRepository).releaseReserved(second.getId(), new BigDecimal("7.50"));
+        verifyNoMoreInteractions(accountRepository);
+    }
+}
@@ -0,0 +1,136 @@
+package com.areeba.cms.cmsmircoservice.Transactions;
+
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.AccountBusyException;
+import com.areeba.cms.cmsmircoservice.transactions.service.impl.AccountStripedLock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountStripedLockTest {
+
+    TransactionProperties transactionProperties;
+    SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        transactionProperties = new TransactionProperties();
+        transactionProperties.getStripes().setCount(8);
+        transactionProperties.getStripes().setMaxWaiting(4);
+        transactionProperties.getStripes().setTimeout(Duration.ofMillis(200));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sameAccount_runsOneAtATime() throws Exception {
+        transactionProperties.getStripes().setMaxWaiting(16);
+        transactionProperties.getStripes().setTimeout(Duration.ofSeconds(5));
+        AccountStripedLock lock = new AccountStripedLock(transactionProperties, meterRegistry);
+        UUID accountId = UUID.randomUUID();
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> lock.execute(accountId, () -> {
+                maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                sleep(10);
+                return inside.decrementAndGet();
+            })));
+        }
+        for (Future<Integer> result : results) result.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, maxInside.get());
+        assertEquals(8, meterRegistry.get("cms.transactions.stripe.wait").timers().stream().mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    void waitTimesOut_whenStripeHeldTooLong() throws Exception {
+        AccountStripedLock lock = new AccountStripedLock(transactionProperties, meterRegistry);
+        UUID accountId = UUID.randomUUID();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Object> holder = pool.submit(() -> lock.execute(accountId, () -> {
+            held.countDown();
+            await(release);
+            return null;
+        }));
+        held.await();
+
+        AccountBusyException ex = assertThrows(AccountBusyException.class, () -> lock.execute(accountId, () -> "never"));
+        assertEquals("Timed out waiting for account", ex.getMessage());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        assertEquals("ok", lock.execute(accountId, () -> "ok"));
+    }
+
+    @Test
+    void rejectsImmediately_whenQueueIsFull() throws Exception {
+        transactionProperties.getStripes().setMaxWaiting(1);
+        transactionProperties.getStripes().setTimeout(Duration.ofSeconds(5));
+        AccountStripedLock lock = new AccountStripedLock(transactionProperties, meterRegistry);
+        UUID accountId = UUID.randomUUID();
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<Object> holder = pool.submit(() -> lock.execute(accountId, () -> {
+            held.countDown();
+            await(release);
+            return null;
+        }));
+        held.await();
+        Future<String> queued = pool.submit(() -> lock.execute(accountId, () -> "queued"));
+        while (meterRegistry.get("cms.transactions.stripe.waiting").gauges().stream().mapToDouble(g -> g.value()).sum() < 1) {
+            Thread.onSpinWait();
+        }
+
+        AccountBusyException ex = assertThrows(AccountBusyException.class, () -> lock.execute(accountId, () -> "rejected"));
+        assertEquals("Too many pending transactions for account", ex.getMessage());
+
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        pool.shutdown();
+    }
+
+    @Test
+    void disabled_runsDirectly() {
+        transactionProperties.getStripes().setEnabled(false);
+        AccountStripedLock lock = new AccountStripedLock(transactionProperties, meterRegistry);
+
+        assertEquals("ok", lock.execute(UUID.randomUUID(), () -> "ok"));
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
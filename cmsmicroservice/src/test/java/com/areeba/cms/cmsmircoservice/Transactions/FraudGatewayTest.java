@@ -0,0 +1,257 @@
+package com.areeba.cms.cmsmircoservice.Transactions;
+
+import com.areeba.cms.cmsmicroservice.type.FraudCheckRequest;
+import com.areeba.cms.cmsmicroservice.type.FraudCheckResponse;
+import com.areeba.cms.cmsmircoservice.config.FraudProperties;
+import com.areeba.cms.cmsmircoservice.rest.DegradedFraudRules;
+import com.areeba.cms.cmsmircoservice.rest.FraudClient;
+import com.areeba.cms.cmsmircoservice.rest.FraudGateway;
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudGatewayTest {
+
+    @Mock
+    FraudClient fraudClient;
+
+    FraudProperties fraudProperties;
+
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    DegradedFraudRules degradedFraudRules;
+
+    FraudGateway fraudGateway;
+
+    @BeforeEach
+    void setUp() {
+        fraudProperties = new FraudProperties();
+        fraudProperties.getDegraded().setLimit(new BigDecimal("1000.00"));
+        fraudProperties.getDegraded().setMaxAttempts(3);
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4).minimumNumberOfCalls(4).failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                // As resilience4j.circuitbreaker.instances.fraud.ignore-exceptions
+                .ignoreExceptions(FeignException.FeignClientException.class).build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build());
+        degradedFraudRules = new DegradedFraudRules(fraudProperties);
+        fraudGateway = new FraudGateway(fraudClient, fraudProperties, degradedFraudRules, circuitBreakerRegistry, bulkheadRegistry);
+    }
+
+    /** What Feign throws when the read timeout expires. */
+    static FeignException timeout() {
+        Request request = Request.create(Request.HttpMethod.POST, "http://fraud/evaluate", Map.of(), null, StandardCharsets.UTF_8, null);
+        return new RetryableException(-1, "Read timed out", Request.HttpMethod.POST, (Long) null, request);
+    }
+
+    /** What Feign throws when the fraud service answers 400. */
+    static FeignException badRequest() {
+        Request request = Request.create(Request.HttpMethod.POST, "http://fraud/evaluate", Map.of(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.BadRequest("Bad Request", request, null, Map.of());
+    }
+
+    /** What Feign throws when the fraud service answers {@code status} (a 4xx other than 400). */
+    static FeignException clientError(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "http://fraud/evaluate", Map.of(), null, StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("FraudClient#evaluate(FraudCheckRequest)", Response.builder()
+                .status(status).reason("Client Error").request(request).headers(Map.of()).build());
+    }
+
+    private static FraudCheckRequest req(String amount) {
+        return req(UUID.randomUUID(), amount);
+    }
+
+    private static FraudCheckRequest req(UUID cardId, String amount) {
+        FraudCheckRequest fraudCheckRequest = new FraudCheckRequest();
+        fraudCheckRequest.setCardId(cardId);
+        fraudCheckRequest.setAmount(new BigDecimal(amount));
+        fraudCheckRequest.setTimestamp(OffsetDateTime.now());
+        return fraudCheckRequest;
+    }
+
+    @Test
+    void serviceDecisionPassedThrough() {
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(false);
+        fraudCheckResponse.setReason("FREQUENCY_EXCEEDS_LIMIT");
+        when(fraudClient.evaluate(any())).thenReturn(fraudCheckResponse);
+
+        assertSame(fraudCheckResponse, fraudGateway.evaluate(req("10.00")));
+    }
+
+    @Test
+    void rejectPolicy_rejectsWhenServiceFails() {
+        fraudProperties.setFallback(FraudProperties.FallbackPolicy.REJECT);
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+
+        FraudCheckResponse decision = fraudGateway.evaluate(req("1.00"));
+
+        assertFalse(decision.getApproved());
+        assertEquals(FraudGateway.UNAVAILABLE, decision.getReason());
+    }
+
+    @Test
+    void approveBelowThresholdPolicy_approvesUpToThreshold() {
+        fraudProperties.setFallback(FraudProperties.FallbackPolicy.APPROVE_BELOW_THRESHOLD);
+        fraudProperties.setFallbackThreshold(new BigDecimal("50.00"));
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+
+        assertTrue(fraudGateway.evaluate(req("50.00")).getApproved());
+        assertFalse(fraudGateway.evaluate(req("50.01")).getApproved());
+    }
+
+    @Test
+    void batch_fallbackAppliedPerRequest() {
+        fraudProperties.setFallback(FraudProperties.FallbackPolicy.APPROVE_BELOW_THRESHOLD);
+        when(fraudClient.evaluateBatch(any())).thenThrow(timeout());
+
+        List<FraudCheckResponse> decisions = fraudGateway.evaluateBatch(List.of(req("10.00"), req("500.00")));
+
+        assertEquals(List.of(true, false), decisions.stream().map(FraudCheckResponse::getApproved).toList());
+    }
+
+    @Test
+    void batch_emptySkipsCall() {
+        assertTrue(fraudGateway.evaluateBatch(List.of()).isEmpty());
+        verify(fraudClient, never()).evaluateBatch(any());
+    }
+
+    @Test
+    void localRules_amountLimitAndPerCardRate() {
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+        UUID cardId = UUID.randomUUID();
+
+        assertEquals("AMOUNT_EXCEEDS_LIMIT", fraudGateway.evaluate(req(cardId, "1000.01")).getReason());
+        // 1 attempt recorded so far, 3 allowed within the interval
+        assertTrue(fraudGateway.evaluate(req(cardId, "10.00")).getApproved());
+        assertTrue(fraudGateway.evaluate(req(cardId, "10.00")).getApproved());
+        FraudCheckResponse fourth = fraudGateway.evaluate(req(cardId, "10.00"));
+        assertFalse(fourth.getApproved());
+        assertEquals("FREQUENCY_EXCEEDS_LIMIT", fourth.getReason());
+        // Other cards are unaffected
+        assertTrue(fraudGateway.evaluate(req("10.00")).getApproved());
+    }
+
+    @Test
+    void badRequest_rethrownWithoutFallback() {
+        when(fraudClient.evaluate(any())).thenThrow(badRequest());
+        when(fraudClient.evaluateBatch(any())).thenThrow(badRequest());
+
+        assertThrows(FeignException.BadRequest.class, () -> fraudGateway.evaluate(req("10.00")));
+        assertThrows(FeignException.BadRequest.class, () -> fraudGateway.evaluateBatch(List.of(req("10.00"))));
+        assertEquals(0, degradedFraudRules.size());
+    }
+
+    @Test
+    void clientErrors_rethrownWithoutOpeningCircuit() {
+        when(fraudClient.evaluate(any())).thenThrow(clientError(404), clientError(422), clientError(409),
+                clientError(404), clientError(422), clientError(409));
+
+        for (int i = 0; i < 6; i++) {
+            assertThrows(FeignException.FeignClientException.class, () -> fraudGateway.evaluate(req("10.00")));
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(FraudGateway.INSTANCE);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        verify(fraudClient, times(6)).evaluate(any());
+    }
+
+    @Test
+    void localRules_idleCardsEvicted() {
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+        UUID cardId = UUID.randomUUID();
+        fraudGateway.evaluate(req(cardId, "10.00"));
+        fraudGateway.evaluate(req("10.00"));
+
+        degradedFraudRules.evictExpired(Instant.now());
+        assertEquals(2, degradedFraudRules.size());
+
+        degradedFraudRules.evictExpired(Instant.now().plus(fraudProperties.getDegraded().getInterval()).plusSeconds(1));
+        assertEquals(0, degradedFraudRules.size());
+        // An evicted card starts over
+        assertTrue(fraudGateway.evaluate(req(cardId, "10.00")).getApproved());
+        assertEquals(1, degradedFraudRules.size());
+    }
+
+    @Test
+    void openCircuit_failsFastWithoutCallingService() {
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+        for (int i = 0; i < 4; i++) fraudGateway.evaluate(req("10.00"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreakerRegistry.circuitBreaker(FraudGateway.INSTANCE).getState());
+        clearInvocations(fraudClient);
+
+        FraudCheckResponse decision = fraudGateway.evaluate(req("10.00"));
+
+        assertTrue(decision.getApproved());
+        assertEquals(FraudGateway.UNAVAILABLE, decision.getReason());
+        verify(fraudClient, never()).evaluate(any());
+    }
+
+    @Test
+    void closingCircuit_forgetsLocalAttempts() {
+        when(fraudClient.evaluate(any())).thenThrow(timeout());
+        for (int i = 0; i < 4; i++) fraudGateway.evaluate(req("10.00"));
+        assertEquals(4, degradedFraudRules.size());
+
+        circuitBreakerRegistry.circuitBreaker(FraudGateway.INSTANCE).transitionToClosedState();
+
+        assertEquals(0, degradedFraudRules.size());
+    }
+
+    @Test
+    void fullBulkhead_fallbackWithoutWaiting() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FraudCheckResponse ok = new FraudCheckResponse();
+        ok.setApproved(true);
+        ok.setReason("OK");
+        when(fraudClient.evaluate(any())).thenAnswer(inv -> {
+            inCall.countDown();
+            release.await();
+            return ok;
+        });
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            var slow = executor.submit(() -> fraudGateway.evaluate(req("10.00")));
+            inCall.await();
+
+            FraudCheckResponse decision = fraudGateway.evaluate(req("10.00"));
+
+            assertEquals(FraudGateway.UNAVAILABLE, decision.getReason());
+            release.countDown();
+            assertEquals("OK", slow.get().getReason());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
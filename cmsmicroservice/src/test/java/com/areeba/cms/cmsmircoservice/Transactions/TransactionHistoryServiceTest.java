@@ -0,0 +1,189 @@
+package com.areeba.cms.cmsmircoservice.Transactions;
+
+import com.areeba.cms.cmsmicroservice.type.TransactionPage;
+import com.areeba.cms.cmsmicroservice.type.TransactionResponse;
+import com.areeba.cms.cmsmicroservice.type.TransactionType;
+import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.InvalidCursorException;
+import com.areeba.cms.cmsmircoservice.exception.ResourceNotFoundException;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionRepository;
+import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionView;
+import com.areeba.cms.cmsmircoservice.transactions.service.impl.TransactionHistoryServiceImpl;
+import com.areeba.cms.cmsmircoservice.utils.KeysetCursor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Limit;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionHistoryServiceTest {
+
+    @Mock
+    TransactionRepository transactionRepository;
+
+    @Mock
+    AccountRepository accountRepository;
+
+    @Mock
+    CardRepository cardRepository;
+
+    @Mock
+    EntityManagerFactory entityManagerFactory;
+
+    final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    TransactionHistoryServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TransactionHistoryServiceImpl(transactionRepository, accountRepository, cardRepository,
+                entityManagerFactory, new TransactionProperties(), objectMapper);
+    }
+
+    private static TransactionView view(UUID accountId, Instant date) {
+        return new TransactionView(UUID.randomUUID(), accountId, UUID.randomUUID(), new BigDecimal("10.00"),
+                TransactionType.D, date, "APPROVED");
+    }
+
+    @Test
+    void listAccountTransactions_firstPageReadsOneExtraRowForTheCursor() {
+        UUID accountId = UUID.randomUUID();
+        OffsetDateTime from = OffsetDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneOffset.ofHours(2));
+        Instant t = from.toInstant();
+        List<TransactionView> rows = List.of(view(accountId, t), view(accountId, t.plusSeconds(1)), view(accountId, t.plusSeconds(2)));
+        when(accountRepository.existsById(accountId)).thenReturn(true);
+        when(transactionRepository.findAccountHistory(eq(accountId), eq(t), any(Instant.class), eq(KeysetCursor.FIRST_ID), eq(Limit.of(3))))
+                .thenReturn(rows);
+
+        TransactionPage res = service.listAccountTransactions(accountId, from, null, null, 2);
+
+        assertEquals(2, res.getTransactions().size());
+        assertEquals(rows.get(0).id(), res.getTransactions().get(0).getId());
+        assertEquals(OffsetDateTime.ofInstant(t, ZoneOffset.UTC), res.getTransactions().get(0).getTransactionDate());
+        assertEquals(TransactionResponse.ResponseEnum.APPROVED, res.getTransactions().get(0).getResponse());
+        assertTrue(res.getHasNext());
+        assertEquals(new KeysetCursor.Position(rows.get(1).transactionDate(), rows.get(1).id()),
+                KeysetCursor.decodePosition(res.getNextCursor()));
+    }
+
+    @Test
+    void listCardTransactions_continuesFromCursorAndCapsSize() {
+        UUID cardId = UUID.randomUUID();
+        Instant last = Instant.parse("2026-03-01T10:15:30.123456Z");
+        UUID lastId = UUID.randomUUID();
+        Instant to = Instant.parse("2026-04-01T00:00:00Z");
+        TransactionView next = view(UUID.randomUUID(), last);
+        when(cardRepository.existsById(cardId)).thenReturn(true);
+        when(transactionRepository.findCardHistory(cardId, last, to, lastId, Limit.of(1001))).thenReturn(List.of(next));
+
+        TransactionPage res = service.listCardTransactions(cardId, null, OffsetDateTime.ofInstant(to, ZoneOffset.UTC),
+                KeysetCursor.encode(last, lastId), 5000);
+
+        assertEquals(1000, res.getSize());
+        assertEquals(List.of(next.id()), res.getTransactions().stream().map(TransactionResponse::getId).toList());
+        assertFalse(res.getHasNext());
+        assertNull(res.getNextCursor());
+    }
+
+    @Test
+    void listAccountTransactions_malformedCursorRejected() {
+        UUID accountId = UUID.randomUUID();
+        when(accountRepository.existsById(accountId)).thenReturn(true);
+        // A card id cursor, and 28 bytes whose timestamp is out of range
+        String idCursor = KeysetCursor.encode(UUID.randomUUID());
+        String outOfRange = Base64.getUrlEncoder().withoutPadding().encodeToString(new byte[]{
+                0x7f, -1, -1, -1, -1, -1, -1, -1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+
+        assertThrows(InvalidCursorException.class, () -> service.listAccountTransactions(accountId, null, null, idCursor, 10));
+        assertThrows(InvalidCursorException.class, () -> service.listAccountTransactions(accountId, null, null, outOfRange, 10));
+        assertThrows(InvalidCursorException.class, () -> service.listAccountTransactions(accountId, null, null, "%%%", 10));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void listCardTransactions_unknownCard_404() {
+        UUID cardId = UUID.randomUUID();
+        when(cardRepository.existsById(cardId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.listCardTransactions(cardId, null, null, null, 10));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportAccountTransactions_streamsNdjsonAndReleasesTheConnection() throws IOException {
+        UUID accountId = UUID.randomUUID();
+        Instant t = Instant.parse("2026-01-01T00:00:00Z");
+        // Enough rows for several chunks
+        List<TransactionView> rows = IntStream.range(0, 200).mapToObj(i -> view(accountId, t.plusSeconds(i))).toList();
+        EntityManager entityManager = mock(EntityManager.class);
+        EntityTransaction transaction = mock(EntityTransaction.class);
+        TypedQuery<TransactionView> query = mock(TypedQuery.class);
+        when(accountRepository.existsById(accountId)).thenReturn(true);
+        when(entityManagerFactory.createEntityManager()).thenReturn(entityManager);
+        when(entityManager.getTransaction()).thenReturn(transaction);
+        when(transaction.isActive()).thenReturn(true);
+        when(entityManager.createQuery(TransactionRepository.ACCOUNT_HISTORY, TransactionView.class)).thenReturn(query);
+        when(query.setHint(anyString(), any())).thenReturn(query);
+        when(query.getResultStream()).thenReturn(rows.stream());
+
+        Resource export = service.exportAccountTransactions(accountId, null, null);
+        verifyNoInteractions(entityManagerFactory);
+
+        String[] lines;
+        try (InputStream in = export.getInputStream()) {
+            lines = new String(in.readAllBytes(), UTF_8).split("\n");
+        }
+
+        assertEquals(200, lines.length);
+        TransactionResponse first = objectMapper.readValue(lines[0], TransactionResponse.class);
+        assertEquals(rows.get(0).id(), first.getId());
+        assertEquals(accountId, first.getAccountId());
+        verify(query).setParameter("ownerId", accountId);
+        verify(query).setParameter("after", KeysetCursor.FIRST_ID);
+        verify(query).setHint("org.hibernate.fetchSize", 500);
+        verify(transaction).begin();
+        verify(transaction).rollback();
+        verify(entityManager).close();
+    }
+
+    @Test
+    void exportCardTransactions_unknownCard_404BeforeStreaming() {
+        UUID cardId = UUID.randomUUID();
+        when(cardRepository.existsById(cardId)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> service.exportCardTransactions(cardId, null, null));
+        verifyNoInteractions(entityManagerFactory);
+    }
+}
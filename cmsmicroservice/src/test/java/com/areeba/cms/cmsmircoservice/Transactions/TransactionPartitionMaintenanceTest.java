@@ -0,0 +1,140 @@
+package com.areeba.cms.cmsmircoservice.Transactions;
+
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.transactions.service.impl.TransactionPartitionMaintenance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TransactionPartitionMaintenanceTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    TransactionProperties transactionProperties = new TransactionProperties();
+
+    TransactionPartitionMaintenance maintenance;
+
+    final LocalDate thisMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+    @BeforeEach
+    void setUp() {
+        maintenance = new TransactionPartitionMaintenance(jdbcTemplate, transactionManager, transactionProperties, "cms");
+    }
+
+    private static OffsetDateTime at(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private static String name(LocalDate month) {
+        return String.format("transactions_p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Stubs the advisory lock and the partition listing; each row is {name, lower, upper} with null for open bounds.
+     */
+    @SuppressWarnings("unchecked")
+    private void existing(boolean locked, Object[]... rows) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(locked);
+        if (!locked) return;
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+            RowMapper<Object> mapper = inv.getArgument(1);
+            List<Object> result = new ArrayList<>();
+            for (Object[] row : rows) result.add(mapper.mapRow(resultSet(row), result.size()));
+            return result;
+        });
+    }
+
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn((String) row[0]);
+        when(rs.getObject(2, OffsetDateTime.class)).thenReturn((OffsetDateTime) row[1]);
+        when(rs.getObject(3, OffsetDateTime.class)).thenReturn((OffsetDateTime) row[2]);
+        return rs;
+    }
+
+    private List<String> statements() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    @Test
+    void maintain_createsMonthsAheadThatNoPartitionCovers() {
+        // Legacy partition still covers the current month
+        existing(true, new Object[]{"transactions_legacy", null, at(thisMonth.plusMonths(1))},
+                new Object[]{name(thisMonth.plusMonths(2)), at(thisMonth.plusMonths(2)), at(thisMonth.plusMonths(3))});
+
+        maintenance.maintain();
+
+        List<String> creates = statements().stream().filter(s -> s.startsWith("create table")).toList();
+        assertEquals(2, creates.size());
+        assertTrue(creates.get(0).startsWith("create table cms." + name(thisMonth.plusMonths(1)) + " partition of cms.transactions"));
+        assertTrue(creates.get(0).endsWith("for values from ('" + at(thisMonth.plusMonths(1)).toInstant() + "') to ('"
+                + at(thisMonth.plusMonths(2)).toInstant() + "')"));
+        assertTrue(creates.get(1).contains(name(thisMonth.plusMonths(3))));
+        assertTrue(statements().stream().noneMatch(s -> s.startsWith("drop")));
+    }
+
+    @Test
+    void maintain_detachesThenDropsPartitionsPastRetention() {
+        transactionProperties.getPartitions().setRetention(Period.ofMonths(12));
+        LocalDate old = thisMonth.minusMonths(14);
+        LocalDate kept = thisMonth.minusMonths(11);
+        existing(true, new Object[]{"transactions_legacy", null, at(old)},
+                new Object[]{name(old), at(old), at(old.plusMonths(1))},
+                new Object[]{name(kept), at(kept), at(kept.plusMonths(1))});
+
+        maintenance.maintain();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("alter table cms.transactions detach partition cms.transactions_legacy");
+        inOrder.verify(jdbcTemplate).execute("drop table cms.transactions_legacy");
+        inOrder.verify(jdbcTemplate).execute("alter table cms.transactions detach partition cms." + name(old));
+        inOrder.verify(jdbcTemplate).execute("drop table cms." + name(old));
+        verify(jdbcTemplate, never()).execute("drop table cms." + name(kept));
+    }
+
+    @Test
+    void maintain_skipsWhenAnotherInstanceHoldsTheLock() {
+        existing(false);
+
+        maintenance.maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void maintain_failureIsRetriedOnTheNextRun() {
+        existing(true);
+        lenient().doThrow(new QueryTimeoutException("lock timeout")).when(jdbcTemplate).execute(startsWith("create table"));
+
+        assertDoesNotThrow(() -> maintenance.maintain());
+        verify(transactionManager).rollback(any());
+    }
+}
@@ -2,27 +2,49 @@ package com.areeba.cms.cmsmircoservice.Transactions;
 
 import com.areeba.cms.cmsmicroservice.type.*;
 import com.areeba.cms.cmsmircoservice.accounts.repo.AccountRepository;
+import com.areeba.cms.cmsmircoservice.cards.repo.CardEligibility;
 import com.areeba.cms.cmsmircoservice.cards.repo.CardRepository;
+import com.areeba.cms.cmsmircoservice.cards.service.impl.CardEligibilityCache;
+import com.areeba.cms.cmsmircoservice.config.CardProperties;
+import com.areeba.cms.cmsmircoservice.config.FraudProperties;
+import com.areeba.cms.cmsmircoservice.config.TransactionProperties;
+import com.areeba.cms.cmsmircoservice.exception.AccountBusyException;
 import com.areeba.cms.cmsmircoservice.exception.TransactionRejectedException;
+import com.areeba.cms.cmsmircoservice.holds.service.AccountHoldService;
+import com.areeba.cms.cmsmircoservice.rest.DegradedFraudRules;
 import com.areeba.cms.cmsmircoservice.rest.FraudClient;
+import com.areeba.cms.cmsmircoservice.rest.FraudGateway;
 import com.areeba.cms.cmsmircoservice.transactions.repo.TransactionRepository;
+import com.areeba.cms.cmsmircoservice.transactions.service.impl.AccountStripedLock;
+import com.areeba.cms.cmsmircoservice.transactions.service.impl.TransactionLedger;
 import com.areeba.cms.cmsmircoservice.transactions.service.impl.TransactionServiceImpl;
 import com.areeba.cms.cmsmircoservice.type.Account;
+import com.areeba.cms.cmsmircoservice.type.AccountHold;
 import com.areeba.cms.cmsmircoservice.type.Card;
+import com.areeba.cms.cmsmircoservice.type.Transaction;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,10 +58,40 @@ public class TransactionServiceTest {
     FraudClient fraudClient;
     @Mock
     TransactionRepository transactionRepository;
+    @Mock
+    AccountHoldService accountHoldService;
+
+    TransactionProperties transactionProperties = new TransactionProperties();
+    FraudProperties fraudProperties = new FraudProperties();
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
-    @InjectMocks
     TransactionServiceImpl transactionService;
 
+    @BeforeEach
+    void setUp() {
+        // Transaction rows reference card and account by id only
+        lenient().when(cardRepository.getReferenceById(any())).thenAnswer(inv -> {
+            Card card = new Card();
+            card.setId(inv.getArgument(0));
+            return card;
+        });
+        lenient().when(accountRepository.getReferenceById(any())).thenAnswer(inv -> {
+            Account account = new Account();
+            account.setId(inv.getArgument(0));
+            return account;
+        });
+        // Cache off: every validation reads the (mocked) card repository
+        CardProperties cardProperties = new CardProperties();
+        cardProperties.getEligibilityCache().setEnabled(false);
+        CardEligibilityCache cardEligibilityCache = new CardEligibilityCache(cardRepository, null, cardProperties, meterRegistry);
+        TransactionLedger transactionLedger = new TransactionLedger(accountRepository, cardRepository, cardEligibilityCache, transactionRepository, accountHoldService, meterRegistry);
+        AccountStripedLock accountStripedLock = new AccountStripedLock(transactionProperties, meterRegistry);
+        FraudGateway fraudGateway = new FraudGateway(fraudClient, fraudProperties, new DegradedFraudRules(fraudProperties),
+                CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        transactionService = new TransactionServiceImpl(transactionLedger, accountHoldService, accountStripedLock, fraudGateway, transactionProperties, meterRegistry);
+    }
+
 
     @Test
     void debitApprovedAndBalanceReduced() {
@@ -48,6 +100,7 @@ public class TransactionServiceTest {
         account.setId(UUID.randomUUID());
         account.setStatus(AccountStatus.ACTIVE);
         account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
         when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
 
         Card card = new Card();
@@ -56,7 +109,7 @@ public class TransactionServiceTest {
         card.setStatus(CardStatus.ACTIVE);
         card.setExpiry(LocalDate.now().plusYears(1));
         card.setCardNumber("4111");
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
 
         FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
         fraudCheckResponse.setApproved(true);
@@ -74,6 +127,9 @@ public class TransactionServiceTest {
         TransactionResponse result = transactionService.createTransactionService(transactionCreateRequest);
         assertEquals(TransactionResponse.ResponseEnum.APPROVED, result.getResponse());
         assertEquals(0, account.getBalance().compareTo(new BigDecimal("400.00")));
+        for (String phase : List.of("validate", "fraud", "row_lock", "apply", "insert")) {
+            assertEquals(1, meterRegistry.get("cms.transactions.phase").tag("phase", phase).timer().count(), phase);
+        }
     }
 
     @Test
@@ -83,6 +139,7 @@ public class TransactionServiceTest {
         account.setId(UUID.randomUUID());
         account.setStatus(AccountStatus.ACTIVE);
         account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
         when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
 
         Card card = new Card();
@@ -91,7 +148,7 @@ public class TransactionServiceTest {
         card.setStatus(CardStatus.ACTIVE);
         card.setExpiry(LocalDate.now().plusYears(1));
         card.setCardNumber("4111");
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
 
         FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
         fraudCheckResponse.setApproved(true);
@@ -118,7 +175,7 @@ public class TransactionServiceTest {
         account.setId(UUID.randomUUID());
         account.setStatus(AccountStatus.ACTIVE);
         account.setBalance(new BigDecimal("0"));
-        when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
 
         Card card = new Card();
         card.setId(UUID.randomUUID());
@@ -126,7 +183,7 @@ public class TransactionServiceTest {
         card.setStatus(CardStatus.ACTIVE);
         card.setExpiry(LocalDate.now().plusYears(1));
         card.setCardNumber("4111");
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
 
         TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
         transactionCreateRequest.setAccountId(account.getId());
@@ -143,6 +200,7 @@ public class TransactionServiceTest {
 
 
         verifyNoInteractions(fraudClient);
+        verify(accountRepository, never()).findByIdForUpdate(any());
         verify(transactionRepository, never()).save(any());
         assertEquals(0, account.getBalance().compareTo(new BigDecimal("0")));
     }
@@ -154,7 +212,7 @@ public class TransactionServiceTest {
         account.setId(UUID.randomUUID());
         account.setStatus(AccountStatus.ACTIVE);
         account.setBalance(new BigDecimal("1000"));
-        when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
 
         Card card = new Card();
         card.setId(UUID.randomUUID());
@@ -162,7 +220,7 @@ public class TransactionServiceTest {
         card.setStatus(CardStatus.INACTIVE);
         card.setExpiry(LocalDate.now().plusYears(1));
         card.setCardNumber("4111");
-        when(cardRepository.findById(card.getId())).thenReturn(Optional.of(card));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
 
         TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
         transactionCreateRequest.setAccountId(account.getId());
@@ -176,11 +234,486 @@ public class TransactionServiceTest {
         );
 
         assertEquals("Card not active", ex.getMessage());
+        assertEquals(1, meterRegistry.get("cms.transactions.rejected").tag("reason", "Card not active").counter().count());
 
 
         verifyNoInteractions(fraudClient);
+        verify(accountRepository, never()).findByIdForUpdate(any());
         verify(transactionRepository, never()).save(any());
         assertEquals(0, account.getBalance().compareTo(new BigDecimal("1000")));
     }
 
+    @Test
+    void debitDeclinedByFraud_rejectedRecordedWithoutLock() {
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(false);
+        fraudCheckResponse.setReason("AMOUNT_EXCEEDS_LIMIT");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        TransactionRejectedException ex = assertThrows(
+                TransactionRejectedException.class,
+                () -> transactionService.createTransactionService(transactionCreateRequest)
+        );
+
+        assertEquals("Possible fraud detected", ex.getMessage());
+
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(captor.capture());
+        assertEquals("REJECTED", captor.getValue().getResponse());
+        verify(accountRepository, never()).findByIdForUpdate(any());
+        assertEquals(0, account.getBalance().compareTo(new BigDecimal("500.00")));        assertEquals(1, meterRegistry.get("cms.transactions.rejected").tag("reason", "Possible fraud detected").counter().count());
+        assertEquals(1, meterRegistry.get("cms.transactions.fraud.rejected").tag("reason", "AMOUNT_EXCEEDS_LIMIT").counter().count());
+    }
+
+    @Test
+    void fraudServiceDown_rejectFallbackRecordsRejection() {
+        fraudProperties.setFallback(FraudProperties.FallbackPolicy.REJECT);
+        Account account = activeAccount("500.00");
+        Card card = activeCard(account);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenThrow(FraudGatewayTest.timeout());
+
+        TransactionRejectedException ex = assertThrows(
+                TransactionRejectedException.class,
+                () -> transactionService.createTransactionService(txn(account, card, "10.00", TransactionType.D))
+        );
+
+        assertEquals("Fraud check unavailable", ex.getMessage());
+        ArgumentCaptor<Transaction> captor = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(captor.capture());
+        assertEquals("REJECTED", captor.getValue().getResponse());
+        assertEquals(0, account.getBalance().compareTo(new BigDecimal("500.00")));
+    }
+
+    @Test
+    void fraudServiceDown_smallDebitApprovedBelowThreshold() {
+        fraudProperties.setFallback(FraudProperties.FallbackPolicy.APPROVE_BELOW_THRESHOLD);
+        Account account = activeAccount("500.00");
+        Card card = activeCard(account);
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+        when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenThrow(FraudGatewayTest.timeout());
+        when(transactionRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionResponse result = transactionService.createTransactionService(txn(account, card, "100.00", TransactionType.D));
+
+        assertEquals(TransactionResponse.ResponseEnum.APPROVED, result.getResponse());
+        assertEquals(0, account.getBalance().compareTo(new BigDecimal("400.00")));
+    }
+
+    @Test
+    void sameAccountConcurrentDebits_fraudLatencyNotSerialized() throws Exception {
+        int threads = 20;
+        long fraudLatencyMs = 50;
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("1000.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        // Stands in for the account row lock: taken by findByIdForUpdate, released once the transaction row is saved
+        ReentrantLock rowLock = new ReentrantLock();
+        when(accountRepository.findByIdForUpdate(account.getId())).thenAnswer(inv -> {
+            rowLock.lock();
+            return Optional.of(account);
+        });
+        when(transactionRepository.save(any())).thenAnswer(inv -> {
+            rowLock.unlock();
+            return inv.getArgument(0);
+        });
+
+        AtomicBoolean fraudCalledUnderLock = new AtomicBoolean();
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(true);
+        fraudCheckResponse.setReason("OK");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenAnswer(inv -> {
+            if (rowLock.isHeldByCurrentThread()) fraudCalledUnderLock.set(true);
+            Thread.sleep(fraudLatencyMs);
+            return fraudCheckResponse;
+        });
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("10.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<TransactionResponse>> results = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return transactionService.createTransactionService(transactionCreateRequest);
+            }));
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<TransactionResponse> result : results) {
+            assertEquals(TransactionResponse.ResponseEnum.APPROVED, result.get(10, TimeUnit.SECONDS).getResponse());
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+        pool.shutdown();
+
+        assertFalse(fraudCalledUnderLock.get());
+        // Serialized behind the lock this would take threads * fraudLatencyMs (1s); overlapping calls take ~1 latency
+        assertTrue(elapsedMs < threads * fraudLatencyMs / 2, "elapsed " + elapsedMs + "ms");
+        assertEquals(0, account.getBalance().compareTo(new BigDecimal("800.00")));
+    }
+
+    @Test
+    void holdMode_debitApprovedCapturesHoldWithoutLock() {
+        transactionProperties.setApplyMode(TransactionProperties.ApplyMode.HOLD);
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        AccountHold hold = new AccountHold();
+        hold.setId(UUID.randomUUID());
+        when(accountHoldService.placeHold(any(TransactionCreateRequest.class), eq(eligibility(card)))).thenReturn(hold);
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(true);
+        fraudCheckResponse.setReason("OK");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        when(transactionRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        TransactionResponse result = transactionService.createTransactionService(transactionCreateRequest);
+        assertEquals(TransactionResponse.ResponseEnum.APPROVED, result.getResponse());
+
+        verify(accountHoldService).captureHold(hold);
+        verify(accountHoldService, never()).releaseHold(any());
+        verify(accountRepository, never()).findByIdForUpdate(any());
+    }
+
+    @Test
+    void holdMode_debitDeclinedByFraudReleasesHold() {
+        transactionProperties.setApplyMode(TransactionProperties.ApplyMode.HOLD);
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        AccountHold hold = new AccountHold();
+        hold.setId(UUID.randomUUID());
+        when(accountHoldService.placeHold(any(TransactionCreateRequest.class), eq(eligibility(card)))).thenReturn(hold);
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(false);
+        fraudCheckResponse.setReason("FREQUENCY_EXCEEDS_LIMIT");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        assertThrows(TransactionRejectedException.class,
+                () -> transactionService.createTransactionService(transactionCreateRequest));
+
+        verify(accountHoldService).releaseHold(hold);
+        verify(accountHoldService, never()).captureHold(any());
+        verify(transactionRepository).save(any());
+    }
+
+    @Test
+    void holdMode_accountBusyReleasesHold() {
+        transactionProperties.setApplyMode(TransactionProperties.ApplyMode.HOLD);
+        // Every stripe wait is turned away
+        transactionProperties.getStripes().setMaxWaiting(0);
+        setUp();
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        AccountHold hold = new AccountHold();
+        hold.setId(UUID.randomUUID());
+        when(accountHoldService.placeHold(any(TransactionCreateRequest.class), eq(eligibility(card)))).thenReturn(hold);
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(true);
+        fraudCheckResponse.setReason("OK");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        assertThrows(AccountBusyException.class,
+                () -> transactionService.createTransactionService(transactionCreateRequest));
+
+        verify(accountHoldService).releaseHold(hold);
+        verify(accountHoldService, never()).captureHold(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void guardedMode_debitApprovedBySingleUpdate() {
+        transactionProperties.setApplyMode(TransactionProperties.ApplyMode.GUARDED);
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("500.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(true);
+        fraudCheckResponse.setReason("OK");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        when(accountRepository.debitIfAvailable(eq(account.getId()), eq(new BigDecimal("100.00")), eq(AccountStatus.ACTIVE), any()))
+                .thenReturn(1);
+        when(transactionRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        TransactionResponse result = transactionService.createTransactionService(transactionCreateRequest);
+        assertEquals(TransactionResponse.ResponseEnum.APPROVED, result.getResponse());
+
+        verify(accountRepository, never()).findByIdForUpdate(any());
+        verify(accountRepository, times(1)).findById(account.getId());
+    }
+
+    @Test
+    void guardedMode_debitDeclinedWhenUpdateMatchesNoRow() {
+        transactionProperties.setApplyMode(TransactionProperties.ApplyMode.GUARDED);
+
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal("150.00"));
+        when(accountRepository.findById(account.getId())).thenReturn(Optional.of(account));
+
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        when(cardRepository.findEligibilityById(card.getId())).thenReturn(Optional.of(eligibility(card)));
+
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        fraudCheckResponse.setApproved(true);
+        fraudCheckResponse.setReason("OK");
+        when(fraudClient.evaluate(any(FraudCheckRequest.class))).thenReturn(fraudCheckResponse);
+
+        // A concurrent debit drained the account between validation and the update
+        when(accountRepository.debitIfAvailable(eq(account.getId()), any(), eq(AccountStatus.ACTIVE), any()))
+                .thenAnswer(inv -> {
+                    account.setBalance(new BigDecimal("50.00"));
+                    return 0;
+                });
+
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal("100.00"));
+        transactionCreateRequest.setTransactionType(TransactionType.D);
+
+        TransactionRejectedException ex = assertThrows(TransactionRejectedException.class,
+                () -> transactionService.createTransactionService(transactionCreateRequest));
+
+        assertEquals("Insufficient balance", ex.getMessage());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void batch_locksEachAccountOnceAndAppliesInOrder() {
+        Account first = activeAccount("150.00");
+        Account second = activeAccount("0.00");
+        Card firstCard = activeCard(first);
+        Card secondCard = activeCard(second);
+        when(cardRepository.findEligibilityByIdIn(any())).thenReturn(List.of(eligibility(firstCard), eligibility(secondCard)));
+        when(accountRepository.findByIdForUpdate(first.getId())).thenReturn(Optional.of(first));
+        when(accountRepository.findByIdForUpdate(second.getId())).thenReturn(Optional.of(second));
+        when(fraudClient.evaluateBatch(any())).thenReturn(fraudBatch(true, true, true, true));
+
+        TransactionBatchRequest batch = new TransactionBatchRequest();
+        batch.setTransactions(List.of(
+                txn(first, firstCard, "100.00", TransactionType.D),
+                txn(second, secondCard, "50.00", TransactionType.C),
+                txn(first, firstCard, "100.00", TransactionType.D), // only 50 left
+                txn(first, firstCard, "40.00", TransactionType.D)));
+
+        List<TransactionBatchResult> results = transactionService.createTransactionBatchService(batch).getResults();
+
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(TransactionBatchResult::getIndex).toList());
+        assertEquals(TransactionBatchResult.OutcomeEnum.APPROVED, results.get(0).getOutcome());
+        assertEquals(TransactionBatchResult.OutcomeEnum.APPROVED, results.get(1).getOutcome());
+        assertEquals(TransactionBatchResult.OutcomeEnum.REJECTED, results.get(2).getOutcome());
+        assertEquals("Insufficient balance", results.get(2).getError());
+        assertNull(results.get(2).getTransaction());
+        assertEquals(TransactionBatchResult.OutcomeEnum.APPROVED, results.get(3).getOutcome());
+        assertEquals(0, first.getBalance().compareTo(new BigDecimal("10.00")));
+        assertEquals(0, second.getBalance().compareTo(new BigDecimal("50.00")));
+        verify(accountRepository, times(1)).findByIdForUpdate(first.getId());
+        verify(accountRepository, times(1)).findByIdForUpdate(second.getId());
+        verify(transactionRepository, never()).save(any());
+    }
+
+    @Test
+    void batch_cardFailuresAndFraudRejectionsReportedPerItem() {
+        Account account = activeAccount("500.00");
+        Card card = activeCard(account);
+        Card inactive = activeCard(account);
+        inactive.setStatus(CardStatus.INACTIVE);
+        when(cardRepository.findEligibilityByIdIn(any())).thenReturn(List.of(eligibility(card), eligibility(inactive)));
+        when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
+        when(fraudClient.evaluateBatch(any())).thenReturn(fraudBatch(false, true));
+
+        Card missing = new Card();
+        missing.setId(UUID.randomUUID());
+        TransactionBatchRequest batch = new TransactionBatchRequest();
+        batch.setTransactions(List.of(
+                txn(account, missing, "10.00", TransactionType.D),
+                txn(account, inactive, "10.00", TransactionType.D),
+                txn(account, card, "20.00", TransactionType.D),
+                txn(account, card, "30.00", TransactionType.D)));
+
+        List<TransactionBatchResult> results = transactionService.createTransactionBatchService(batch).getResults();
+
+        assertEquals(TransactionBatchResult.OutcomeEnum.NOT_FOUND, results.get(0).getOutcome());
+        assertEquals("Card not found", results.get(0).getError());
+        assertEquals(TransactionBatchResult.OutcomeEnum.REJECTED, results.get(1).getOutcome());
+        assertEquals("Card not active", results.get(1).getError());
+        assertEquals(TransactionBatchResult.OutcomeEnum.REJECTED, results.get(2).getOutcome());
+        assertEquals("Possible fraud detected", results.get(2).getError());
+        assertEquals(TransactionResponse.ResponseEnum.REJECTED, results.get(2).getTransaction().getResponse());
+        assertEquals(TransactionBatchResult.OutcomeEnum.APPROVED, results.get(3).getOutcome());
+        assertEquals(0, account.getBalance().compareTo(new BigDecimal("470.00")));
+        // Only items that passed card checks reach the fraud service, in one call
+        ArgumentCaptor<FraudCheckBatchRequest> fraudCap = ArgumentCaptor.forClass(FraudCheckBatchRequest.class);
+        verify(fraudClient).evaluateBatch(fraudCap.capture());
+        assertEquals(2, fraudCap.getValue().getRequests().size());
+        verify(fraudClient, never()).evaluate(any());
+    }
+
+    private static Account activeAccount(String balance) {
+        Account account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setStatus(AccountStatus.ACTIVE);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+
+    private static Card activeCard(Account account) {
+        Card card = new Card();
+        card.setId(UUID.randomUUID());
+        card.setAccount(account);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setExpiry(LocalDate.now().plusYears(1));
+        card.setCardNumber("4111");
+        return card;
+    }
+
+    private static CardEligibility eligibility(Card card) {
+        return new CardEligibility(card.getId(), card.getStatus(), card.getExpiry(), card.getAccount().getId());
+    }
+
+    private static FraudCheckBatchResponse fraudBatch(boolean... approved) {
+        FraudCheckBatchResponse fraudCheckBatchResponse = new FraudCheckBatchResponse();
+        for (boolean ok : approved) {
+            FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+            fraudCheckResponse.setApproved(ok);
+            fraudCheckResponse.setReason(ok ? "OK" : "AMOUNT_EXCEEDS_LIMIT");
+            fraudCheckBatchResponse.addResultsItem(fraudCheckResponse);
+        }
+        return fraudCheckBatchResponse;
+    }
+
+    private static TransactionCreateRequest txn(Account account, Card card, String amount, TransactionType type) {
+        TransactionCreateRequest transactionCreateRequest = new TransactionCreateRequest();
+        transactionCreateRequest.setAccountId(account.getId());
+        transactionCreateRequest.setCardId(card.getId());
+        transactionCreateRequest.setTransactionAmount(new BigDecimal(amount));
+        transactionCreateRequest.setTransactionType(type);
+        return transactionCreateRequest;
+    }
 }
@@ -0,0 +1,150 @@
+package com.areeba.cms.common.partitions;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the range partitions of a table partitioned on a {@code timestamptz} column, one partition per UTC day or
+ * month named {@code <table>_pYYYYMMDD} / {@code <table>_pYYYYMM}.
+ * <p>Each run, in one transaction and only on the instance holding the advisory lock:</p>
+ * <ul>
+ *   <li>creates the partition of the current period and the next {@code premake} ones, skipping periods an existing
+ *       partition covers;</li>
+ *   <li>when a cutoff is given, detaches and drops every partition whose upper bound is not after it, so old rows go
+ *       without a {@code DELETE}.</li>
+ * </ul>
+ * <p>DDL waits at most {@code lockTimeout} for the table lock; a failed run is logged and retried on the next one.
+ * Names are written unquoted, like Hibernate's {@code default_schema} and the repositories' native SQL, so a
+ * mixed-case schema setting resolves to the same (lower-case) schema everywhere.</p>
+ */
+public class RangePartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(RangePartitionMaintenance.class);
+
+    /** Bounds of every non-default partition; a {@code MINVALUE}/{@code MAXVALUE} bound reads as null. */
+    static final String PARTITIONS_SQL = "select c.relname, "
+            + "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \\(''([^'']*)''\\)'))[1]::timestamptz, "
+            + "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']*)''\\)'))[1]::timestamptz "
+            + "from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+            + "where i.inhparent = ?::regclass and pg_get_expr(c.relpartbound, c.oid) <> 'DEFAULT'";
+
+    /** Length of one partition. */
+    public enum Granularity {
+        DAY(ChronoUnit.DAYS, "yyyyMMdd"),
+        MONTH(ChronoUnit.MONTHS, "yyyyMM");
+
+        private final ChronoUnit unit;
+        private final DateTimeFormatter suffix;
+
+        Granularity(ChronoUnit unit, String suffix) {
+            this.unit = unit;
+            this.suffix = DateTimeFormatter.ofPattern(suffix);
+        }
+
+        LocalDate start(Instant now) {
+            LocalDate day = now.atZone(ZoneOffset.UTC).toLocalDate();
+            return unit == ChronoUnit.MONTHS ? day.withDayOfMonth(1) : day;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String schema;
+    private final String table;
+    private final Granularity granularity;
+
+    public RangePartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     String schema, String table, Granularity granularity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.schema = schema;
+        this.table = table;
+        this.granularity = granularity;
+    }
+
+    /**
+     * Runs one maintenance pass.
+     *
+     * @param now         current time
+     * @param premake     periods created ahead of the current one
+     * @param lockTimeout max wait of each DDL statement for the table lock
+     * @param cutoff      partitions ending at or before this are dropped; {@code null} keeps every partition
+     */
+    public void maintain(Instant now, int premake, Duration lockTimeout, Instant cutoff) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> maintainLocked(now, premake, lockTimeout, cutoff));
+        } catch (DataAccessException e) {
+            log.warn("Partition maintenance of {} failed, retrying on the next run", table, e);
+        }
+    }
+
+    private void maintainLocked(Instant now, int premake, Duration lockTimeout, Instant cutoff) {
+        Boolean locked = jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, qualified(table));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Partition maintenance of {} running on another instance", table);
+            return;
+        }
+        jdbcTemplate.execute("set local lock_timeout = " + lockTimeout.toMillis());
+        List<Partition> partitions = jdbcTemplate.query(PARTITIONS_SQL, (rs, i) -> new Partition(rs.getString(1),
+                toInstant(rs.getObject(2, OffsetDateTime.class)), toInstant(rs.getObject(3, OffsetDateTime.class))), qualified(table));
+        createAhead(partitions, now, premake);
+        if (cutoff != null) dropExpired(partitions, cutoff);
+    }
+
+    private void createAhead(List<Partition> partitions, Instant now, int premake) {
+        List<Partition> covered = new ArrayList<>(partitions);
+        LocalDate start = granularity.start(now);
+        for (int i = 0; i <= premake; i++, start = start.plus(1, granularity.unit)) {
+            LocalDate end = start.plus(1, granularity.unit);
+            Partition partition = new Partition(table + "_p" + granularity.suffix.format(start),
+                    start.atStartOfDay(ZoneOffset.UTC).toInstant(), end.atStartOfDay(ZoneOffset.UTC).toInstant());
+            if (covered.stream().anyMatch(partition::overlaps)) continue;
+            jdbcTemplate.execute("create table " + qualified(partition.name()) + " partition of " + qualified(table)
+                    + " for values from ('" + partition.lower() + "') to ('" + partition.upper() + "')");
+            covered.add(partition);
+            log.info("Created partition {} for [{}, {})", partition.name(), partition.lower(), partition.upper());
+        }
+    }
+
+    private void dropExpired(List<Partition> partitions, Instant cutoff) {
+        for (Partition partition : partitions) {
+            if (partition.upper() == null || partition.upper().isAfter(cutoff)) continue;
+            jdbcTemplate.execute("alter table " + qualified(table) + " detach partition " + qualified(partition.name()));
+            jdbcTemplate.execute("drop table " + qualified(partition.name()));
+            log.info("Dropped partition {} (rows before {}, cutoff {})", partition.name(), partition.upper(), cutoff);
+        }
+    }
+
+    private String qualified(String name) {
+        return schema + "." + name;
+    }
+
+    private static Instant toInstant(OffsetDateTime value) {
+        return value == null ? null : value.toInstant();
+    }
+
+    /**
+     * A range partition; {@code null} bounds are open.
+     */
+    private record Partition(String name, Instant lower, Instant upper) {
+
+        boolean overlaps(Partition other) {
+            return (lower == null || other.upper == null || lower.isBefore(other.upper))
+                    && (upper == null || other.lower == null || other.lower.isBefore(upper));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.areeba.cms.common.Partitions;
+
+import com.areeba.cms.common.partitions.RangePartitionMaintenance;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the generated DDL against a real Postgres, with a mixed-case schema setting like {@code env.example}.
+ */
+public class RangePartitionMaintenanceTest {
+
+    static EmbeddedPostgres postgres;
+
+    static JdbcTemplate jdbcTemplate;
+
+    static DataSourceTransactionManager transactionManager;
+
+    /** Folds to {@code cms_eventsservice}, the schema Flyway creates for this setting. */
+    static final String SCHEMA = "cms_eventsService";
+
+    final Instant now = Instant.parse("2026-03-15T10:00:00Z");
+
+    @BeforeAll
+    static void start() throws IOException {
+        // Bounds read back from the catalogue are rendered in UTC
+        postgres = EmbeddedPostgres.builder().setServerConfig("timezone", "UTC").start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        transactionManager = new DataSourceTransactionManager(postgres.getPostgresDatabase());
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("drop schema if exists " + SCHEMA + " cascade");
+        jdbcTemplate.execute("create schema " + SCHEMA);
+        jdbcTemplate.execute("create table " + SCHEMA + ".events (id bigint, event_time timestamptz not null) partition by range (event_time)");
+        jdbcTemplate.execute("create table " + SCHEMA + ".events_default partition of " + SCHEMA + ".events default");
+    }
+
+    private RangePartitionMaintenance maintenance(RangePartitionMaintenance.Granularity granularity) {
+        return new RangePartitionMaintenance(jdbcTemplate, transactionManager, SCHEMA, "events", granularity);
+    }
+
+    /** Partition name and bound expression, by name. */
+    private static List<Map<String, Object>> partitions() {
+        return jdbcTemplate.queryForList("select c.relname as name, pg_get_expr(c.relpartbound, c.oid) as bound "
+                + "from pg_inherits i join pg_class c on c.oid = i.inhrelid join pg_namespace n on n.oid = c.relnamespace "
+                + "where i.inhparent = 'cms_eventsservice.events'::regclass and n.nspname = 'cms_eventsservice' order by 1");
+    }
+
+    private static String bound(LocalDate from, LocalDate to) {
+        return "FOR VALUES FROM ('" + from + " 00:00:00+00') TO ('" + to + " 00:00:00+00')";
+    }
+
+    @Test
+    void daily_createsTodayAndPremadeDaysInTheLowerCaseSchema() {
+        maintenance(RangePartitionMaintenance.Granularity.DAY).maintain(now, 2, Duration.ofSeconds(5), null);
+
+        LocalDate today = LocalDate.of(2026, 3, 15);
+        assertEquals(List.of(
+                Map.of("name", "events_default", "bound", "DEFAULT"),
+                Map.of("name", "events_p20260315", "bound", bound(today, today.plusDays(1))),
+                Map.of("name", "events_p20260316", "bound", bound(today.plusDays(1), today.plusDays(2))),
+                Map.of("name", "events_p20260317", "bound", bound(today.plusDays(2), today.plusDays(3)))), partitions());
+        jdbcTemplate.update("insert into " + SCHEMA + ".events values (1, ?)", Timestamp.from(now));
+        assertEquals("cms_eventsservice.events_p20260315",
+                jdbcTemplate.queryForObject("select tableoid::regclass::text from " + SCHEMA + ".events", String.class));
+    }
+
+    @Test
+    void monthly_skipsCoveredMonthsAndDropsPastTheCutoff() {
+        jdbcTemplate.execute("create table " + SCHEMA + ".events_legacy partition of " + SCHEMA + ".events "
+                + "for values from (minvalue) to ('2026-02-01T00:00:00Z')");
+        jdbcTemplate.execute("create table " + SCHEMA + ".events_p202604 partition of " + SCHEMA + ".events "
+                + "for values from ('2026-04-01T00:00:00Z') to ('2026-05-01T00:00:00Z')");
+        RangePartitionMaintenance maintenance = maintenance(RangePartitionMaintenance.Granularity.MONTH);
+
+        maintenance.maintain(now, 2, Duration.ofSeconds(5), Instant.parse("2026-02-01T00:00:00Z"));
+        // A second run finds nothing to do
+        maintenance.maintain(now, 2, Duration.ofSeconds(5), Instant.parse("2026-02-01T00:00:00Z"));
+
+        assertEquals(List.of("events_default", "events_p202603", "events_p202604", "events_p202605"),
+                partitions().stream().map(p -> p.get("name")).toList());
+        assertEquals(bound(LocalDate.of(2026, 5, 1), LocalDate.of(2026, 6, 1)), partitions().get(3).get("bound"));
+    }
+
+    @Test
+    void failedRunRollsBackAndLeavesTheTableUsable() {
+        // A March row in the default partition makes the March partition's create fail
+        jdbcTemplate.execute("insert into " + SCHEMA + ".events values (1, '2026-03-20T00:00:00Z')");
+
+        assertDoesNotThrow(() -> maintenance(RangePartitionMaintenance.Granularity.MONTH)
+                .maintain(now, 1, Duration.ofSeconds(5), null));
+
+        // The run stopped at March and nothing was left half-done
+        assertEquals(List.of("events_default"), partitions().stream().map(p -> p.get("name")).toList());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from " + SCHEMA + ".events", Integer.class));
+    }
+}
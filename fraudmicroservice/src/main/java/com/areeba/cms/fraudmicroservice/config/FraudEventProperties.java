@@ -0,0 +1,44 @@
+package com.areeba.cms.fraudmicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Binds fraud event write-behind settings under the prefix {@code fraud.events}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "fraud.events")
+@Data
+public class FraudEventProperties {
+
+    /** Max number of events waiting to be written; callers are slowed down beyond this. */
+    private int queueCapacity = 10_000;
+
+    /** Max number of rows written per batch insert. */
+    private int flushSize = 500;
+
+    /** Max time an event waits in the queue before a partial batch is written. */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /** How long a caller waits for queue space before writing its event itself. */
+    private Duration offerTimeout = Duration.ofMillis(50);
+
+    /** Daily partitions of the {@code fraud_events} table. */
+    private final Partitions partitions = new Partitions();
+
+    @Data
+    public static class Partitions {
+
+        /** Days created ahead of the current one. */
+        private int premake = 7;
+
+        /** Partitions ending before {@code now - retention} are dropped; unset keeps every partition. */
+        private Duration retention;
+
+        /** Max time partition DDL waits for the table lock before the run gives up. */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+    }
+}
@@ -0,0 +1,70 @@
+package com.areeba.cms.fraudmicroservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binds the fraud rule chain settings under the prefix {@code fraud.rules}.
+ * <p>Thresholds here are the startup values; they can be changed at runtime through the
+ * {@code fraudrules} actuator endpoint. The amount limit and the window length stay
+ * {@code fraud.limit} and {@code fraud.interval}.</p>
+ */
+@Configuration
+@ConfigurationProperties(prefix = "fraud.rules")
+@Data
+public class FraudRuleProperties {
+
+    /** Names of the rules in the chain; they run cheapest first, ties in this order. */
+    private List<String> enabled = List.of("amount", "frequency");
+
+    /** Attempts of one card within {@code fraud.interval}. */
+    private final Attempts frequency = new Attempts(8, 16);
+
+    /** Attempts of one account, all cards together, within {@code fraud.interval}. */
+    private final Attempts account = new Attempts(30, 64);
+
+    /** Per-merchant amount limits. */
+    private final Merchant merchant = new Merchant();
+
+    /** Amount attempted by one card within {@code fraud.interval}. */
+    private final Velocity velocity = new Velocity();
+
+    @Data
+    public static class Attempts {
+
+        /** Prior attempts in the window from which the next one is rejected. */
+        private int maxAttempts;
+
+        /** Event times kept per key; the highest {@code max-attempts} can be raised to at runtime. */
+        private int capacity;
+
+        public Attempts(int maxAttempts, int capacity) {
+            this.maxAttempts = maxAttempts;
+            this.capacity = capacity;
+        }
+    }
+
+    @Data
+    public static class Merchant {
+
+        /** Max allowed amount by merchant id; merchants not listed are not limited. */
+        private Map<String, BigDecimal> limits = new LinkedHashMap<>();
+    }
+
+    @Data
+    public static class Velocity {
+
+        /** Max total amount of a card's attempts in the window, the current one included. */
+        private BigDecimal maxAmount = new BigDecimal("50000.00");
+
+        /** Width of the in-memory time buckets; the window may reach back one bucket more. */
+        private Duration bucket = Duration.ofMinutes(1);
+    }
+}
@@ -1,6 +1,8 @@
 package com.areeba.cms.fraudmicroservice.controller;
 
 import com.areeba.cms.fraudmicroservice.service.FraudService;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckRequest;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckResponse;
 import org.slf4j.Logger;
@@ -26,4 +28,12 @@ public class FraudController implements EvaluateApi {
         log.info("Transaction evaluated");
         return ResponseEntity.ok(fraudCheckResponse);
     }
+
+    @Override
+    public ResponseEntity<FraudCheckBatchResponse> evaluateTransactionBatch(FraudCheckBatchRequest fraudCheckBatchRequest) {
+        log.debug("Evaluate transaction batch size={}", fraudCheckBatchRequest.getRequests().size());
+        FraudCheckBatchResponse fraudCheckBatchResponse = fraudService.evaluateTransactionBatchService(fraudCheckBatchRequest);
+        log.info("Transaction batch evaluated");
+        return ResponseEntity.ok(fraudCheckBatchResponse);
+    }
 }
@@ -0,0 +1,78 @@
+package com.areeba.cms.fraudmicroservice.controller;
+
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudRuleChain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint {@code /actuator/fraudrules} (management port) to inspect the rule chain and change
+ * thresholds without a restart.
+ * <ul>
+ *   <li>{@code GET /actuator/fraudrules} — rules in evaluation order with their thresholds.</li>
+ *   <li>{@code POST /actuator/fraudrules/{rule}/{key}} with {@code {"value": 5000}} — sets a threshold,
+ *       e.g. {@code amount/limit}, {@code frequency/max-attempts} or {@code merchant/{merchantId}};
+ *       {@code {"value": null}} removes a merchant limit.</li>
+ * </ul>
+ * Changes are kept in memory only; a restart goes back to {@code fraud.limit} and {@code fraud.rules.*}.
+ */
+@Component
+@Endpoint(id = "fraudrules")
+public class FraudRulesEndpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudRulesEndpoint.class);
+
+    private final FraudRuleChain fraudRuleChain;
+
+    public FraudRulesEndpoint(FraudRuleChain fraudRuleChain) {
+        this.fraudRuleChain = fraudRuleChain;
+    }
+
+    @ReadOperation
+    public List<RuleDescriptor> rules() {
+        return fraudRuleChain.rules().stream().map(RuleDescriptor::of).toList();
+    }
+
+    @ReadOperation
+    public RuleDescriptor rule(@Selector String name) {
+        FraudRule rule = fraudRuleChain.rule(name);
+        return rule == null ? null : RuleDescriptor.of(rule);
+    }
+
+    @WriteOperation
+    public RuleDescriptor threshold(@Selector String name, @Selector String key, @Nullable BigDecimal value) {
+        FraudRule rule = fraudRuleChain.rule(name);
+        if (rule == null) {
+            throw new InvalidEndpointRequestException("Unknown fraud rule: " + name, "Unknown fraud rule");
+        }
+        try {
+            rule.setThreshold(key, value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Invalid threshold");
+        }
+        log.info("Fraud rule {} threshold {} set to {}", name, key, value);
+        return RuleDescriptor.of(rule);
+    }
+
+    /**
+     * A rule of the chain as returned by the endpoint.
+     */
+    public record RuleDescriptor(String name, String reason, int cost, Map<String, BigDecimal> thresholds) {
+
+        static RuleDescriptor of(FraudRule rule) {
+            return new RuleDescriptor(rule.name(), rule.reason(), rule.cost(), new TreeMap<>(rule.thresholds()));
+        }
+    }
+}
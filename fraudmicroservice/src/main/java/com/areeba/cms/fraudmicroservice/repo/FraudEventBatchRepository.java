@@ -0,0 +1,18 @@
+package com.areeba.cms.fraudmicroservice.repo;
+
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+
+import java.util.List;
+
+/**
+ * Bulk write fragment of {@link FraudRepository}, bypassing the persistence context.
+ */
+public interface FraudEventBatchRepository {
+
+    /**
+     * Inserts the events with a single JDBC batch; ids are generated by the database.
+     *
+     * @param events events to insert, ids are ignored
+     */
+    void insertAll(List<FraudEvent> events);
+}
@@ -0,0 +1,38 @@
+package com.areeba.cms.fraudmicroservice.repo;
+
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link FraudEventBatchRepository}.
+ * <p>Statements are sent with {@link JdbcTemplate#batchUpdate}; with {@code reWriteBatchedInserts}
+ * on the Postgres driver they reach the server as multi-row inserts.</p>
+ */
+class FraudEventBatchRepositoryImpl implements FraudEventBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSql;
+
+    FraudEventBatchRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                  @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertSql = "insert into " + schema + ".fraud_events (card_id, account_id, merchant_id, amount, event_time) values (?, ?, ?, ?, ?)";
+    }
+
+    @Override
+    public void insertAll(List<FraudEvent> events) {
+        jdbcTemplate.batchUpdate(insertSql, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.getCardId(), Types.OTHER);
+            ps.setObject(2, event.getAccountId(), Types.OTHER);
+            ps.setString(3, event.getMerchantId());
+            ps.setBigDecimal(4, event.getAmount());
+            ps.setObject(5, OffsetDateTime.ofInstant(event.getEventTime(), ZoneOffset.UTC));
+        });
+    }
+}
@@ -1,26 +1,36 @@
 package com.areeba.cms.fraudmicroservice.repo;
 
 import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository for {@link FraudEvent}.
- * <p>Includes a helper to count recent events per card (used by the frequency rule).</p>
+ * <p>Decisions never query this table: the stateful rules keep their own in-memory windows, filled at
+ * startup by a streaming read of recent events. Audit writes go through
+ * {@link FraudEventBatchRepository#insertAll(java.util.List)}.</p>
  */
-public interface FraudRepository extends JpaRepository<FraudEvent, UUID> {
+public interface FraudRepository extends JpaRepository<FraudEvent, UUID>, FraudEventBatchRepository {
 
     /**
-     * Counts fraud events for a card since the given timestamp (inclusive).
+     * Streams the rule keys, amount and time of every event since the given timestamp (inclusive).
+     * <p>Forward-only read with a fixed fetch size; must be consumed inside a transaction. Events come
+     * oldest first (ties by id), so rules that re-decide events on replay see them in the order they
+     * happened, the same on every restart.</p>
      *
-     * @param cardId the card identifier
-     * @param since  lower bound (UTC instant), included in the count
-     * @return number of events matching the window
+     * @param since lower bound (UTC instant)
+     * @return stream of projections, to be closed by the caller
      */
-    @Query("select count(f) from FraudEvent f where f.cardId = :cardId and f.eventTime >= :since")
-    long countForCardSince(@Param("cardId") UUID cardId, @Param("since") Instant since);
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select f.cardId as cardId, f.accountId as accountId, f.merchantId as merchantId, f.amount as amount, "
+            + "f.eventTime as eventTime from FraudEvent f where f.eventTime >= :since order by f.eventTime, f.id")
+    Stream<RecentFraudEvent> streamEventsSince(@Param("since") Instant since);
 }
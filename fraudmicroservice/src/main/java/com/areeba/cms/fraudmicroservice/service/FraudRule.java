@@ -0,0 +1,71 @@
+package com.areeba.cms.fraudmicroservice.service;
+
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * A fraud rule of the chain run by {@code FraudRuleChain}.
+ * <p>Implementations are Spring beans; {@code fraud.rules.enabled} selects which of them run.
+ * {@link #test(FraudEvent)} is on the request path, so it must not block or allocate: thresholds
+ * are read from fields that {@link #setThreshold(String, BigDecimal)} replaces.</p>
+ */
+public interface FraudRule {
+
+    /**
+     * @return name used in {@code fraud.rules.enabled}, metrics and the actuator endpoint
+     */
+    String name();
+
+    /**
+     * @return rejection reason returned to the caller
+     */
+    String reason();
+
+    /**
+     * @return relative evaluation cost; the chain runs cheaper rules first
+     */
+    int cost();
+
+    /**
+     * Decides whether the attempt is rejected. A stateful rule also accounts the attempt,
+     * atomically with the decision.
+     *
+     * @param event attempt being evaluated
+     * @return {@code true} to reject
+     */
+    boolean test(FraudEvent event);
+
+    /**
+     * Accounts an attempt that an earlier rule already rejected. Stateless rules, and rules that only
+     * count approved attempts, do nothing.
+     *
+     * @param event attempt being evaluated
+     */
+    default void skip(FraudEvent event) {
+    }
+
+    /**
+     * Accounts a past event read from {@code fraud_events} at startup. Stateless rules do nothing.
+     *
+     * @param event recorded event
+     */
+    default void replay(RecentFraudEvent event) {
+    }
+
+    /**
+     * @return current thresholds by key
+     */
+    Map<String, BigDecimal> thresholds();
+
+    /**
+     * Replaces a threshold; following evaluations see the new value.
+     *
+     * @param key   one of {@link #thresholds()}'s keys, or a new key for rules keyed by data (merchant)
+     * @param value new threshold; {@code null} removes a data key
+     * @throws IllegalArgumentException if the key or value is not valid for the rule
+     */
+    void setThreshold(String key, BigDecimal value);
+}
@@ -1,5 +1,7 @@
 package com.areeba.cms.fraudmicroservice.service;
 
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckRequest;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckResponse;
 
@@ -20,4 +22,11 @@ public interface FraudService {
      */
     FraudCheckResponse evaluateTransactionService(FraudCheckRequest request);
 
+    /**
+     * Runs the same checks for each request of a batch, in order.
+     *
+     * @param request requests to evaluate
+     * @return one decision per request, in request order
+     */
+    FraudCheckBatchResponse evaluateTransactionBatchService(FraudCheckBatchRequest request);
 }
@@ -0,0 +1,48 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Rejects an attempt when the account, all its cards together, already has
+ * {@code fraud.rules.account.max-attempts} attempts in {@code [timestamp - fraud.interval, timestamp]}.
+ * Requests without an account id are not counted.
+ */
+@Component
+public class AccountFrequencyRule extends AttemptRule {
+
+    public AccountFrequencyRule(@Value("${fraud.interval}") Duration interval, FraudRuleProperties properties) {
+        super(interval, properties.getAccount());
+    }
+
+    @Override
+    public String name() {
+        return "account";
+    }
+
+    @Override
+    public String reason() {
+        return "ACCOUNT_FREQUENCY_EXCEEDS_LIMIT";
+    }
+
+    @Override
+    public int cost() {
+        return 20;
+    }
+
+    @Override
+    UUID key(FraudEvent event) {
+        return event.getAccountId();
+    }
+
+    @Override
+    UUID key(RecentFraudEvent event) {
+        return event.getAccountId();
+    }
+}
@@ -0,0 +1,55 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Rejects attempts whose amount is above {@code fraud.limit}. Stateless, one comparison.
+ */
+@Component
+public class AmountLimitRule implements FraudRule {
+
+    static final String LIMIT = "limit";
+
+    private volatile BigDecimal limit;
+
+    public AmountLimitRule(@Value("${fraud.limit}") BigDecimal limit) {
+        this.limit = RuleThresholds.requireAmount(limit);
+    }
+
+    @Override
+    public String name() {
+        return "amount";
+    }
+
+    @Override
+    public String reason() {
+        return "AMOUNT_EXCEEDS_LIMIT";
+    }
+
+    @Override
+    public int cost() {
+        return 0;
+    }
+
+    @Override
+    public boolean test(FraudEvent event) {
+        return event.getAmount().compareTo(limit) > 0;
+    }
+
+    @Override
+    public Map<String, BigDecimal> thresholds() {
+        return Map.of(LIMIT, limit);
+    }
+
+    @Override
+    public void setThreshold(String key, BigDecimal value) {
+        RuleThresholds.requireKey(LIMIT, key);
+        limit = RuleThresholds.requireAmount(value);
+    }
+}
@@ -0,0 +1,99 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Rejects an attempt when it would bring the card's attempted amount within {@code fraud.interval}
+ * above {@code fraud.rules.velocity.max-amount}: catches many small transactions that the amount and
+ * frequency rules each let through.
+ * <p>Sums come from the in-memory {@link AmountVelocityWindow} and only include attempts this rule let
+ * through: a rejected attempt, here or by an earlier rule, does not use up the card's allowance. The
+ * rule has the highest cost of the built-in rules so it runs last, which makes "let through here" the
+ * same as "approved". {@code fraud_events} does not record decisions, so the startup replay re-decides
+ * each recorded event against the current limit instead.</p>
+ */
+@Component
+public class AmountVelocityRule implements FraudRule {
+
+    static final String MAX_AMOUNT = "max-amount";
+
+    /** Largest amount whose cents fit in a long; anything above is over every limit. */
+    private static final BigDecimal MAX_CENTS_AMOUNT = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final AmountVelocityWindow window;
+    private volatile long maxCents;
+
+    public AmountVelocityRule(@Value("${fraud.interval}") Duration interval, FraudRuleProperties properties) {
+        FraudRuleProperties.Velocity velocity = properties.getVelocity();
+        this.window = new AmountVelocityWindow(interval, velocity.getBucket());
+        this.maxCents = toCents(RuleThresholds.requireAmount(velocity.getMaxAmount()));
+    }
+
+    @Override
+    public String name() {
+        return "velocity";
+    }
+
+    @Override
+    public String reason() {
+        return "VELOCITY_EXCEEDS_LIMIT";
+    }
+
+    @Override
+    public int cost() {
+        return 30;
+    }
+
+    @Override
+    public boolean test(FraudEvent event) {
+        return !window.tryAdd(event.getCardId(), event.getEventTime(), toCents(event.getAmount()), maxCents);
+    }
+
+    @Override
+    public void replay(RecentFraudEvent event) {
+        window.tryAdd(event.getCardId(), event.getEventTime(), toCents(event.getAmount()), maxCents);
+    }
+
+    @Override
+    public Map<String, BigDecimal> thresholds() {
+        return Map.of(MAX_AMOUNT, BigDecimal.valueOf(maxCents, 2));
+    }
+
+    @Override
+    public void setThreshold(String key, BigDecimal value) {
+        RuleThresholds.requireKey(MAX_AMOUNT, key);
+        maxCents = toCents(RuleThresholds.requireAmount(value));
+    }
+
+    /**
+     * Periodic sweep: forgets cards with no event inside {@code fraud.interval}.
+     */
+    @Scheduled(fixedDelayString = "${fraud.interval}")
+    public void evictExpired() {
+        window.evictExpired(Instant.now());
+    }
+
+    /** Number of cards currently tracked. */
+    public int size() {
+        return window.size();
+    }
+
+    /** Negative amounts count as zero, so they cannot lower the card's sum. */
+    private static long toCents(BigDecimal amount) {
+        if (amount.signum() <= 0) return 0;
+        if (amount.compareTo(MAX_CENTS_AMOUNT) > 0) return Long.MAX_VALUE;
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,153 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * In-memory per-card rolling sum of attempt amounts, used by {@link AmountVelocityRule}.
+ * <p>
+ * Each card keeps a fixed ring of time buckets ({@code fraud.rules.velocity.bucket} wide, one
+ * minute by default) covering {@code fraud.interval} plus the bucket in progress. Adding an amount
+ * updates one bucket, and a sum reads at most every bucket once, so both are O(buckets) with no
+ * database access. The window is rounded out to whole buckets: a sum may include attempts up to one
+ * bucket older than {@code fraud.interval}, never fewer than the exact window.
+ * </p>
+ * <p>Amounts are kept in minor units (cents). Like {@link CardEventWindow}, sums only reflect
+ * events seen by this instance plus the startup replay from {@code fraud_events}. Only amounts
+ * that keep the sum within the caller's limit are added.</p>
+ */
+public class AmountVelocityWindow {
+
+    private final ConcurrentMap<UUID, Buckets> cards = new ConcurrentHashMap<>();
+    private final Function<UUID, Buckets> newBuckets;
+    private final long bucketNanos;
+    private final long intervalNanos;
+
+    public AmountVelocityWindow(Duration interval, Duration bucket) {
+        if (bucket.isNegative() || bucket.isZero() || bucket.compareTo(interval) > 0)
+            throw new IllegalArgumentException("Velocity bucket must be positive and at most " + interval + ": " + bucket);
+        this.bucketNanos = bucket.toNanos();
+        this.intervalNanos = interval.toNanos();
+        // Buckets touched by [t - interval, t]
+        int size = (int) ((intervalNanos + bucketNanos - 1) / bucketNanos) + 1;
+        this.newBuckets = cardId -> new Buckets(size);
+    }
+
+    /**
+     * Adds {@code cents} if the card's amounts in {@code [eventTime - interval, eventTime]} plus {@code cents}
+     * stay within {@code max}; otherwise leaves the window unchanged.
+     * <p>Check and add happen atomically per card, so concurrent attempts see each other.</p>
+     *
+     * @param cardId    card identifier
+     * @param eventTime time of the attempt being evaluated
+     * @param cents     amount of the attempt, in minor units, zero or more
+     * @param max       highest allowed sum, in minor units
+     * @return {@code true} if the amount was added
+     */
+    public boolean tryAdd(UUID cardId, Instant eventTime, long cents, long max) {
+        long time = toNanos(eventTime);
+        long to = Math.floorDiv(time, bucketNanos);
+        long from = Math.floorDiv(time - intervalNanos, bucketNanos);
+        while (true) {
+            Buckets buckets = cards.computeIfAbsent(cardId, newBuckets);
+            synchronized (buckets) {
+                if (buckets.evicted) continue; // swept between lookup and lock, retry on fresh buckets
+                // Sums and max are both within [0, Long.MAX_VALUE], so this cannot overflow
+                if (cents > max - buckets.sum(from, to)) return false;
+                buckets.add(to, cents);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Sums the card's amounts in {@code [eventTime - interval, eventTime]}.
+     *
+     * @param cardId    card identifier
+     * @param eventTime end of the window
+     * @return amount in the window, in minor units
+     */
+    public long sum(UUID cardId, Instant eventTime) {
+        Buckets buckets = cards.get(cardId);
+        if (buckets == null) return 0;
+        long time = toNanos(eventTime);
+        synchronized (buckets) {
+            return buckets.sum(Math.floorDiv(time - intervalNanos, bucketNanos), Math.floorDiv(time, bucketNanos));
+        }
+    }
+
+    /**
+     * Forgets cards with no event inside the interval before {@code now}.
+     * <p>Removed buckets are marked under their lock, the same way as in {@link CardEventWindow}.</p>
+     *
+     * @param now current time
+     */
+    public void evictExpired(Instant now) {
+        long oldest = Math.floorDiv(toNanos(now) - intervalNanos, bucketNanos);
+        cards.values().removeIf(buckets -> {
+            synchronized (buckets) {
+                if (buckets.newest >= oldest) return false;
+                buckets.evicted = true;
+                return true;
+            }
+        });
+    }
+
+    /** Number of cards currently tracked. */
+    public int size() {
+        return cards.size();
+    }
+
+    private static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Sums of the {@code size} most recent buckets of one card, up to bucket {@code newest}; bucket
+     * {@code i} lives in slot {@code i mod size}. Not thread-safe on its own.
+     */
+    private static final class Buckets {
+        private final long[] sums;
+        private long newest = Long.MIN_VALUE;
+        /** Set under the buckets' lock when the sweep removes them from the map. */
+        boolean evicted;
+
+        Buckets(int size) {
+            this.sums = new long[size];
+        }
+
+        long sum(long from, long to) {
+            long first = Math.max(from, newest - sums.length + 1);
+            long last = Math.min(to, newest);
+            long sum = 0;
+            for (long i = first; i <= last; i++) {
+                sum += sums[slot(i)];
+            }
+            return sum;
+        }
+
+        void add(long index, long cents) {
+            if (newest == Long.MIN_VALUE) {
+                newest = index;
+            } else if (index > newest) {
+                // Clear the slots the ring moves over; they held buckets that are now too old
+                long clear = Math.min(index - newest, sums.length);
+                for (long i = 1; i <= clear; i++) {
+                    sums[slot(newest + i)] = 0;
+                }
+                newest = index;
+            } else if (index <= newest - sums.length) {
+                return; // older than every bucket kept, outside any window the ring can answer
+            }
+            sums[slot(index)] += cents;
+        }
+
+        private int slot(long index) {
+            return (int) Math.floorMod(index, (long) sums.length);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Base of the rules that reject the next attempt once a key has {@code max-attempts} prior attempts
+ * within {@code fraud.interval}, counted in a {@link CardEventWindow}.
+ * <p>Every attempt with a key joins the window, including those another rule rejected first;
+ * attempts without a key are ignored.</p>
+ */
+abstract class AttemptRule implements FraudRule {
+
+    static final String MAX_ATTEMPTS = "max-attempts";
+
+    private final CardEventWindow window;
+    private final int capacity;
+    private volatile int maxAttempts;
+
+    AttemptRule(Duration interval, FraudRuleProperties.Attempts attempts) {
+        this.capacity = attempts.getCapacity();
+        this.maxAttempts = RuleThresholds.requireCount(BigDecimal.valueOf(attempts.getMaxAttempts()), capacity);
+        this.window = new CardEventWindow(interval, capacity);
+    }
+
+    /**
+     * @return window key of the attempt, or {@code null} if it has none
+     */
+    abstract UUID key(FraudEvent event);
+
+    /**
+     * @return window key of the recorded event, or {@code null} if it has none
+     */
+    abstract UUID key(RecentFraudEvent event);
+
+    @Override
+    public boolean test(FraudEvent event) {
+        UUID key = key(event);
+        return key != null && window.countAndRecord(key, event.getEventTime()) >= maxAttempts;
+    }
+
+    @Override
+    public void skip(FraudEvent event) {
+        UUID key = key(event);
+        if (key != null) window.record(key, event.getEventTime());
+    }
+
+    @Override
+    public void replay(RecentFraudEvent event) {
+        UUID key = key(event);
+        if (key != null) window.record(key, event.getEventTime());
+    }
+
+    @Override
+    public Map<String, BigDecimal> thresholds() {
+        return Map.of(MAX_ATTEMPTS, BigDecimal.valueOf(maxAttempts));
+    }
+
+    @Override
+    public void setThreshold(String key, BigDecimal value) {
+        RuleThresholds.requireKey(MAX_ATTEMPTS, key);
+        maxAttempts = RuleThresholds.requireCount(value, capacity);
+    }
+
+    /**
+     * Periodic sweep: forgets keys with no event inside {@code fraud.interval}.
+     */
+    @Scheduled(fixedDelayString = "${fraud.interval}")
+    public void evictExpired() {
+        window.evictExpired(Instant.now());
+    }
+
+    /** Number of keys currently tracked. */
+    public int size() {
+        return window.size();
+    }
+}
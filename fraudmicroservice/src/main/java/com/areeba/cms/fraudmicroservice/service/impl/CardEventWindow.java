@@ -0,0 +1,149 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * In-memory per-key sliding window of recent event times, used by the attempt rules
+ * ({@link CardFrequencyRule} keyed by card, {@link AccountFrequencyRule} keyed by account).
+ * <p>
+ * Each key keeps only its {@code capacity} newest event times in a small sorted ring, which is all
+ * a rule needs to decide whether a threshold up to {@code capacity} is reached. Keys with no event
+ * inside {@code fraud.interval} are dropped by the owning rule's periodic sweep.
+ * </p>
+ * <p>Counts only reflect events seen by this instance (plus the startup replay from
+ * {@code fraud_events}), so the fraud service should run as a single instance or with
+ * card-affine routing.</p>
+ */
+public class CardEventWindow {
+
+    private final ConcurrentMap<UUID, Ring> rings = new ConcurrentHashMap<>();
+    private final Function<UUID, Ring> newRing;
+    private final long intervalNanos;
+
+    public CardEventWindow(Duration interval, int capacity) {
+        this.intervalNanos = interval.toNanos();
+        this.newRing = key -> new Ring(capacity);
+    }
+
+    /**
+     * Counts events of the key in {@code [eventTime - interval, eventTime]}, then records {@code eventTime}.
+     * <p>Both steps happen atomically per key, so concurrent attempts see each other.</p>
+     *
+     * @param key       card or account identifier
+     * @param eventTime time of the attempt being evaluated
+     * @return prior events in the window, capped at the ring capacity
+     */
+    public int countAndRecord(UUID key, Instant eventTime) {
+        long time = toNanos(eventTime);
+        while (true) {
+            Ring ring = rings.computeIfAbsent(key, newRing);
+            synchronized (ring) {
+                if (ring.evicted) continue; // swept between lookup and lock, retry on a fresh ring
+                int count = ring.countSince(time - intervalNanos);
+                ring.add(time);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Records an event without counting (attempts decided by an earlier rule, startup replay).
+     *
+     * @param key       card or account identifier
+     * @param eventTime event time
+     */
+    public void record(UUID key, Instant eventTime) {
+        long time = toNanos(eventTime);
+        while (true) {
+            Ring ring = rings.computeIfAbsent(key, newRing);
+            synchronized (ring) {
+                if (ring.evicted) continue;
+                ring.add(time);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drops keys whose newest event is older than {@code cutoff}.
+     * <p>A dropped ring is marked under its lock, so a writer that fetched it before the removal
+     * retries on a new ring instead of recording into one that is no longer in the map.</p>
+     *
+     * @param cutoff oldest event time still relevant
+     */
+    public void evictOlderThan(Instant cutoff) {
+        long limit = toNanos(cutoff);
+        rings.values().removeIf(ring -> {
+            synchronized (ring) {
+                if (ring.newest() >= limit) return false;
+                ring.evicted = true;
+                return true;
+            }
+        });
+    }
+
+    /** Number of keys currently tracked. */
+    public int size() {
+        return rings.size();
+    }
+
+    /**
+     * Forgets keys with no event inside the interval before {@code now}.
+     *
+     * @param now current time
+     */
+    public void evictExpired(Instant now) {
+        evictOlderThan(now.minusNanos(intervalNanos));
+    }
+
+    private static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Newest {@code capacity} event times of one key, ascending. Not thread-safe on its own.
+     */
+    private static final class Ring {
+        private final long[] times;
+        private int size;
+        /** Set under the ring's lock when the sweep removes it from the map. */
+        boolean evicted;
+
+        Ring(int capacity) {
+            this.times = new long[capacity];
+        }
+
+        int countSince(long since) {
+            int count = 0;
+            for (int i = size - 1; i >= 0 && times[i] >= since; i--) count++;
+            return count;
+        }
+
+        void add(long time) {
+            int from;
+            if (size < times.length) {
+                from = size++;
+            } else if (time > times[0]) {
+                System.arraycopy(times, 1, times, 0, size - 1);
+                from = size - 1;
+            } else {
+                return; // older than everything kept, cannot change any count
+            }
+            int i = from;
+            while (i > 0 && times[i - 1] > time) {
+                times[i] = times[i - 1];
+                i--;
+            }
+            times[i] = time;
+        }
+
+        long newest() {
+            return size == 0 ? Long.MIN_VALUE : times[size - 1];
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Rejects an attempt when the card already has {@code fraud.rules.frequency.max-attempts} attempts
+ * in {@code [timestamp - fraud.interval, timestamp]}.
+ */
+@Component
+public class CardFrequencyRule extends AttemptRule {
+
+    public CardFrequencyRule(@Value("${fraud.interval}") Duration interval, FraudRuleProperties properties) {
+        super(interval, properties.getFrequency());
+    }
+
+    @Override
+    public String name() {
+        return "frequency";
+    }
+
+    @Override
+    public String reason() {
+        return "FREQUENCY_EXCEEDS_LIMIT";
+    }
+
+    @Override
+    public int cost() {
+        return 10;
+    }
+
+    @Override
+    UUID key(FraudEvent event) {
+        return event.getCardId();
+    }
+
+    @Override
+    UUID key(RecentFraudEvent event) {
+        return event.getCardId();
+    }
+}
@@ -0,0 +1,50 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.common.partitions.RangePartitionMaintenance;
+import com.areeba.cms.fraudmicroservice.config.FraudEventProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps the daily partitions of {@code fraud_events} (see {@code V2__fraud_events_partitioned.sql}).
+ * <p>Creates {@code fraud_events_pYYYYMMDD} for today and the next {@code fraud.events.partitions.premake} days;
+ * when {@code fraud.events.partitions.retention} is set, drops every partition whose upper bound is not after
+ * {@code now - retention}. Retention never goes below {@code fraud.interval}, which the frequency window reloads at
+ * startup. See {@link RangePartitionMaintenance} for locking and failure handling.</p>
+ */
+@Component
+public class FraudEventPartitionMaintenance {
+
+    static final String TABLE = "fraud_events";
+
+    private final RangePartitionMaintenance partitions;
+    private final FraudEventProperties.Partitions properties;
+    private final Duration interval;
+
+    public FraudEventPartitionMaintenance(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                          FraudEventProperties fraudEventProperties,
+                                          @Value("${fraud.interval}") Duration interval,
+                                          @Value("${spring.jpa.properties.hibernate.default_schema}") String schema) {
+        this.partitions = new RangePartitionMaintenance(jdbcTemplate, transactionManager, schema, TABLE,
+                RangePartitionMaintenance.Granularity.DAY);
+        this.properties = fraudEventProperties.getPartitions();
+        this.interval = interval;
+    }
+
+    /**
+     * Runs at startup and then every {@code fraud.events.partitions.maintenance-interval}.
+     */
+    @Scheduled(fixedDelayString = "${fraud.events.partitions.maintenance-interval}")
+    public void maintain() {
+        Instant now = Instant.now();
+        Duration retention = properties.getRetention();
+        Instant cutoff = retention == null ? null : now.minus(retention.compareTo(interval) < 0 ? interval : retention);
+        partitions.maintain(now, properties.getPremake(), properties.getLockTimeout(), cutoff);
+    }
+}
@@ -0,0 +1,212 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudEventProperties;
+import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of {@link FraudEvent}s for audit.
+ * <p>The decision no longer depends on the table (see {@link FraudRuleChain}), so evaluate only
+ * enqueues the event. A single drainer thread writes the queue in batches of up to
+ * {@code fraud.events.flush-size} rows, or whatever arrived within {@code fraud.events.flush-interval}.</p>
+ * <p>When the queue is full the caller waits up to {@code fraud.events.offer-timeout} and then
+ * writes its own event, so a slow database slows evaluate down instead of losing records.
+ * Everything still queued is written when the context shuts down.</p>
+ * Metrics:
+ * <ul>
+ *   <li>{@code fraud.events.pending} — events waiting in the queue.</li>
+ *   <li>{@code fraud.events.write} — duration of each batch insert.</li>
+ *   <li>{@code fraud.events.caller.writes} — writes done by a caller because the queue was full.</li>
+ *   <li>{@code fraud.events.failed} — events lost to a failed insert.</li>
+ * </ul>
+ */
+@Component
+public class FraudEventRecorder implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudEventRecorder.class);
+
+    private final FraudRepository fraudRepository;
+    private final FraudEventProperties properties;
+    private final BlockingQueue<FraudEvent> queue;
+    private final Timer writeTimer;
+    private final Counter callerWrites;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private Thread drainer;
+
+    public FraudEventRecorder(FraudRepository fraudRepository, FraudEventProperties properties, MeterRegistry meterRegistry) {
+        this.fraudRepository = fraudRepository;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Gauge.builder("fraud.events.pending", queue, BlockingQueue::size)
+                .description("Fraud events waiting to be written")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("fraud.events.write")
+                .description("Duration of a fraud event batch insert")
+                .register(meterRegistry);
+        this.callerWrites = Counter.builder("fraud.events.caller.writes")
+                .description("Fraud event writes done by the caller because the queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("fraud.events.failed")
+                .description("Fraud events lost to a failed insert")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the event for the next batch.
+     *
+     * @param fraudEvent event to persist
+     */
+    public void record(FraudEvent fraudEvent) {
+        if (!running) {
+            write(List.of(fraudEvent));
+            return;
+        }
+        try {
+            if (queue.offer(fraudEvent, properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.warn("Fraud event queue full, writing on caller thread");
+        callerWrites.increment();
+        write(List.of(fraudEvent));
+    }
+
+    /**
+     * Queues several events with the same backpressure as {@link #record(FraudEvent)}; whatever
+     * does not fit is written by the caller in one batch.
+     *
+     * @param fraudEvents events to persist
+     */
+    public void recordAll(List<FraudEvent> fraudEvents) {
+        int queued = 0;
+        if (running) {
+            try {
+                while (queued < fraudEvents.size()
+                        && queue.offer(fraudEvents.get(queued), properties.getOfferTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                    queued++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (queued == fraudEvents.size()) {
+                return;
+            }
+            log.warn("Fraud event queue full, writing {} events on caller thread", fraudEvents.size() - queued);
+            callerWrites.increment();
+        }
+        write(fraudEvents.subList(queued, fraudEvents.size()));
+    }
+
+    /**
+     * @return number of events waiting to be written
+     */
+    public int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        drainer = new Thread(this::drain, "fraud-event-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        drainer.interrupt();
+        try {
+            drainer.join(properties.getFlushInterval().multipliedBy(10).toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the drainer did not get to
+        flushAll();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, so no request can enqueue behind the final flush.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /**
+     * Writes everything currently queued on the calling thread.
+     */
+    void flushAll() {
+        List<FraudEvent> batch = new ArrayList<>(properties.getFlushSize());
+        while (queue.drainTo(batch, properties.getFlushSize()) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void drain() {
+        int flushSize = properties.getFlushSize();
+        long intervalNanos = properties.getFlushInterval().toNanos();
+        List<FraudEvent> batch = new ArrayList<>(flushSize);
+        while (running) {
+            try {
+                FraudEvent first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < flushSize) {
+                    if (queue.drainTo(batch, flushSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    FraudEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // stop() interrupts to wake us up; the loop condition decides
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<FraudEvent> batch) {
+        try {
+            writeTimer.record(() -> fraudRepository.insertAll(batch));
+            log.debug("Fraud events saved: {}", batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            log.error("Failed to save {} fraud events", batch.size(), e);
+        }
+    }
+}
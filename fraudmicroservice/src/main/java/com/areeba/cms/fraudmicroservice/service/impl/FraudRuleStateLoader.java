@@ -0,0 +1,58 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Warms the stateful rules of {@link FraudRuleChain} from {@code fraud_events} once all beans are
+ * created, i.e. before the web server starts taking requests.
+ * <p>Reads only the last {@code fraud.interval} of events, in one streaming pass shared by all rules.</p>
+ */
+@Component
+public class FraudRuleStateLoader implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(FraudRuleStateLoader.class);
+
+    private final FraudRepository fraudRepository;
+    private final FraudRuleChain fraudRuleChain;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration interval;
+
+    public FraudRuleStateLoader(FraudRepository fraudRepository,
+                                FraudRuleChain fraudRuleChain,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${fraud.interval}") Duration interval) {
+        this.fraudRepository = fraudRepository;
+        this.fraudRuleChain = fraudRuleChain;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.interval = interval;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Instant since = Instant.now().minus(interval);
+        long loaded = readOnlyTransaction.execute(status -> {
+            long count = 0;
+            try (Stream<RecentFraudEvent> events = fraudRepository.streamEventsSince(since)) {
+                for (RecentFraudEvent event : (Iterable<RecentFraudEvent>) events::iterator) {
+                    fraudRuleChain.replay(event);
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.info("Fraud rules warmed with {} events", loaded);
+    }
+}
@@ -1,96 +1,134 @@
 package com.areeba.cms.fraudmicroservice.service.impl;
 
-import com.areeba.cms.fraudmicroservice.controller.FraudController;
-import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
 import com.areeba.cms.fraudmicroservice.service.FraudService;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckRequest;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudEvent;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.time.Duration;
-import java.time.OffsetDateTime;
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
- * Fraud rules: amount limit and recent-frequency check.
- * <p>
- * Uses two inputs from config:
+ * Fraud evaluation: runs {@link FraudRuleChain} and records the attempt regardless of the decision;
+ * the audit row is written asynchronously by {@link FraudEventRecorder}.
+ * <p>Metrics:</p>
  * <ul>
- *   <li><b>fraud.limit</b> — max allowed amount (e.g., 10000.00).</li>
- *   <li><b>fraud.interval</b> — look-back window for frequency (e.g., PT1H).</li>
+ *   <li>{@code fraud.rule} — evaluation time of each rule (see {@link FraudRuleChain}).</li>
+ *   <li>{@code fraud.evaluate.phase} — tag {@code phase}: {@code record} (hand-off of the audit event).</li>
+ *   <li>{@code fraud.decisions} — decisions by {@code reason} ({@code OK} or the rejection code).</li>
  * </ul>
- * Counts prior events for the same card within the window and records the current
- * attempt regardless of the decision.
  */
 @Service
 public class FraudServiceImpl implements FraudService {
 
-    private static final Logger log = LoggerFactory.getLogger(FraudServiceImpl.class);
+    private static final String OK = "OK";
 
-    /** Allowed number of attempts within the interval before we start rejecting the next one. */
-    private static final int MAX_TXN_ATTEMPTS = 8;
-    private final FraudRepository fraudRepository;
-    private final BigDecimal limit;
-    private final Duration interval;
+    private final FraudRuleChain fraudRuleChain;
+    private final FraudEventRecorder fraudEventRecorder;
+    private final Timer recordTimer;
+    private final Map<String, Counter> decisions = new HashMap<>();
 
-    public FraudServiceImpl(FraudRepository fraudRepository,
-                            @Value("${fraud.limit}") BigDecimal limit,
-                            @Value("${fraud.interval}") Duration interval) {
-        this.fraudRepository = fraudRepository;
-        this.limit = limit;
-        this.interval = interval;
+    public FraudServiceImpl(FraudRuleChain fraudRuleChain,
+                            FraudEventRecorder fraudEventRecorder,
+                            MeterRegistry meterRegistry) {
+        this.fraudRuleChain = fraudRuleChain;
+        this.fraudEventRecorder = fraudEventRecorder;
+        this.recordTimer = Timer.builder("fraud.evaluate.phase")
+                .description("Time spent in each phase of a fraud evaluation")
+                .tag("phase", "record")
+                .register(meterRegistry);
+        decisions.put(OK, decisionCounter(meterRegistry, OK));
+        for (FraudRule rule : fraudRuleChain.rules()) {
+            decisions.computeIfAbsent(rule.reason(), reason -> decisionCounter(meterRegistry, reason));
+        }
     }
 
     /**
      * Evaluates a single transaction against the configured rules.
      * <p>
-     * Decision logic:
-     * <ul>
-     *   <li><b>Amount</b>: reject if {@code amount > limit} with reason {@code AMOUNT_EXCEEDS_LIMIT}.</li>
-     *   <li><b>Frequency</b>: reject if <i>prior</i> events in {@code [timestamp - interval, timestamp]} ≥ {@code MAX_TXN_ATTEMPTS}
-     *       with reason {@code FREQUENCY_EXCEEDS_LIMIT}.</li>
-     *   <li>If both trigger, amount reason wins.</li>
-     * </ul>
-     * Always persists a {@link FraudEvent} for audit (cardId, amount, eventTime).
+     * The reason is the one of the first rule of the chain that rejects, e.g. {@code AMOUNT_EXCEEDS_LIMIT}
+     * before {@code FREQUENCY_EXCEEDS_LIMIT} when both trigger.
+     * Always records a {@link FraudEvent} for audit (cardId, amount, eventTime); the insert is asynchronous.
      *
      * @param request cardId, amount, and event timestamp (UTC offset)
      * @return {@code approved=true} with reason {@code OK} when clean; otherwise {@code approved=false} with the reason
      */
-    @Transactional
     @Override
     public FraudCheckResponse evaluateTransactionService(FraudCheckRequest request) {
-        BigDecimal amount = request.getAmount();
-        boolean amountFlag = amount.compareTo(limit) > 0;
-        UUID cardId = request.getCardId();
-        OffsetDateTime timeStamp = request.getTimestamp();
-        long count = fraudRepository.countForCardSince(cardId, timeStamp.toInstant().minus(interval));
-        boolean freqFlag = count >= MAX_TXN_ATTEMPTS;
+        FraudEvent fraudEvent = toEvent(request);
+        FraudCheckResponse fraudCheckResponse = decide(fraudEvent);
+
+        // Record the fraud
+        recordTimer.record(() -> fraudEventRecorder.record(fraudEvent));
+        return fraudCheckResponse;
+    }
+
+    /**
+     * Evaluates a batch with the same rules as {@link #evaluateTransactionService(FraudCheckRequest)}.
+     * <p>Requests are decided in order, so a card's (or account's) attempt count includes its earlier
+     * requests in the batch. All events are handed to {@link FraudEventRecorder} at once.</p>
+     *
+     * @param request requests to evaluate
+     * @return one decision per request, in request order
+     */
+    @Override
+    public FraudCheckBatchResponse evaluateTransactionBatchService(FraudCheckBatchRequest request) {
+        List<FraudEvent> fraudEvents = new ArrayList<>(request.getRequests().size());
+        List<FraudCheckResponse> results = new ArrayList<>(request.getRequests().size());
+        for (FraudCheckRequest fraudCheckRequest : request.getRequests()) {
+            FraudEvent fraudEvent = toEvent(fraudCheckRequest);
+            results.add(decide(fraudEvent));
+            fraudEvents.add(fraudEvent);
+        }
 
         // Record the fraud
+        recordTimer.record(() -> fraudEventRecorder.recordAll(fraudEvents));
+        FraudCheckBatchResponse fraudCheckBatchResponse = new FraudCheckBatchResponse();
+        fraudCheckBatchResponse.setResults(results);
+        return fraudCheckBatchResponse;
+    }
+
+    private static FraudEvent toEvent(FraudCheckRequest request) {
         FraudEvent fraudEvent = new FraudEvent();
-        fraudEvent.setCardId(cardId);
-        fraudEvent.setAmount(amount);
-        fraudEvent.setEventTime(timeStamp.toInstant());
-        log.debug("Saving fraud event");
-        fraudRepository.save(fraudEvent);
-        log.info("Fraud event saved");
+        fraudEvent.setCardId(request.getCardId());
+        fraudEvent.setAccountId(request.getAccountId());
+        fraudEvent.setMerchantId(request.getMerchantId());
+        fraudEvent.setAmount(request.getAmount());
+        fraudEvent.setEventTime(request.getTimestamp().toInstant());
+        return fraudEvent;
+    }
 
-        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+    /**
+     * Runs the rule chain, which also adds the attempt to the stateful rules.
+     */
+    private FraudCheckResponse decide(FraudEvent fraudEvent) {
+        FraudRule rejectedBy = fraudRuleChain.evaluate(fraudEvent);
 
-        if (amountFlag || freqFlag) {
-            String reason = amountFlag ? "AMOUNT_EXCEEDS_LIMIT" : "FREQUENCY_EXCEEDS_LIMIT";
-            fraudCheckResponse.setReason(reason);
+        FraudCheckResponse fraudCheckResponse = new FraudCheckResponse();
+        if (rejectedBy != null) {
+            fraudCheckResponse.setReason(rejectedBy.reason());
             fraudCheckResponse.setApproved(false);
         } else {
-            fraudCheckResponse.setReason("OK");
+            fraudCheckResponse.setReason(OK);
             fraudCheckResponse.setApproved(true);
         }
+        decisions.get(fraudCheckResponse.getReason()).increment();
         return fraudCheckResponse;
     }
-}
\ No newline at end of file
+
+    private static Counter decisionCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("fraud.decisions")
+                .description("Fraud decisions by reason")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
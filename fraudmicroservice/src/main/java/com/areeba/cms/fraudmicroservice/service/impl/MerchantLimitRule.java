@@ -0,0 +1,70 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rejects attempts above the merchant's own limit ({@code fraud.rules.merchant.limits}).
+ * <p>Stateless, one hash lookup. Requests without a merchant id, or for merchants without a
+ * limit, pass. Thresholds are keyed by merchant id; setting one replaces the whole map, so
+ * evaluations never see it half-updated.</p>
+ */
+@Component
+public class MerchantLimitRule implements FraudRule {
+
+    private static final int MAX_MERCHANT_ID_LENGTH = 64;
+
+    private volatile Map<String, BigDecimal> limits;
+
+    public MerchantLimitRule(FraudRuleProperties properties) {
+        properties.getMerchant().getLimits().values().forEach(RuleThresholds::requireAmount);
+        this.limits = Map.copyOf(properties.getMerchant().getLimits());
+    }
+
+    @Override
+    public String name() {
+        return "merchant";
+    }
+
+    @Override
+    public String reason() {
+        return "MERCHANT_LIMIT_EXCEEDED";
+    }
+
+    @Override
+    public int cost() {
+        return 1;
+    }
+
+    @Override
+    public boolean test(FraudEvent event) {
+        String merchantId = event.getMerchantId();
+        if (merchantId == null) return false;
+        BigDecimal limit = limits.get(merchantId);
+        return limit != null && event.getAmount().compareTo(limit) > 0;
+    }
+
+    @Override
+    public Map<String, BigDecimal> thresholds() {
+        return limits;
+    }
+
+    @Override
+    public synchronized void setThreshold(String merchantId, BigDecimal value) {
+        if (merchantId == null || merchantId.isBlank() || merchantId.length() > MAX_MERCHANT_ID_LENGTH)
+            throw new IllegalArgumentException("Invalid merchant id: " + merchantId);
+        Map<String, BigDecimal> updated = new HashMap<>(limits);
+        if (value == null) {
+            updated.remove(merchantId);
+        } else {
+            updated.put(merchantId, RuleThresholds.requireAmount(value));
+        }
+        limits = Map.copyOf(updated);
+    }
+}
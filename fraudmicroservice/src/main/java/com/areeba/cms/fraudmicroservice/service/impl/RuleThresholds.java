@@ -0,0 +1,30 @@
+package com.areeba.cms.fraudmicroservice.service.impl;
+
+import java.math.BigDecimal;
+
+/**
+ * Validation shared by the {@code setThreshold} implementations of the fraud rules.
+ */
+final class RuleThresholds {
+
+    private RuleThresholds() {
+    }
+
+    static void requireKey(String expected, String key) {
+        if (!expected.equals(key))
+            throw new IllegalArgumentException("Unknown threshold '" + key + "', expected '" + expected + "'");
+    }
+
+    static BigDecimal requireAmount(BigDecimal value) {
+        if (value == null || value.signum() < 0)
+            throw new IllegalArgumentException("Amount threshold must be zero or more: " + value);
+        return value;
+    }
+
+    static int requireCount(BigDecimal value, int capacity) {
+        if (value == null || value.signum() <= 0 || value.stripTrailingZeros().scale() > 0
+                || value.compareTo(BigDecimal.valueOf(capacity)) > 0)
+            throw new IllegalArgumentException("Attempt threshold must be a whole number in [1, " + capacity + "]: " + value);
+        return value.intValue();
+    }
+}
@@ -25,6 +25,12 @@ public class FraudEvent {
     @Column(nullable = false)
     private UUID cardId;
 
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID accountId;
+
+    @Column(length = 64)
+    private String merchantId;
+
     @Column(nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
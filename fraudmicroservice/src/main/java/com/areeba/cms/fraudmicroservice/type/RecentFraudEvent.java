@@ -0,0 +1,21 @@
+package com.areeba.cms.fraudmicroservice.type;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of {@link FraudEvent} with what the stateful fraud rules replay at startup.
+ */
+public interface RecentFraudEvent {
+
+    UUID getCardId();
+
+    UUID getAccountId();
+
+    String getMerchantId();
+
+    BigDecimal getAmount();
+
+    Instant getEventTime();
+}
@@ -0,0 +1,31 @@
+-- Range-partition fraud_events by day of event_time.
+-- The existing table is attached as fraud_events_legacy, bounded above by the start of the day after its newest row,
+-- so no rows are copied. FraudEventPartitionMaintenance creates the daily partitions (fraud_events_pYYYYMMDD) from
+-- there on and drops those past retention; fraud_events_default only catches rows no partition covers.
+alter table fraud_events rename to fraud_events_legacy;
+-- A partition's primary key must include the partition column
+alter table fraud_events_legacy drop constraint fraud_events_pkey,
+    add constraint fraud_events_legacy_pkey primary key (id, event_time);
+alter index idx_card_time rename to fraud_events_legacy_card_time_idx;
+
+create table fraud_events (
+    id uuid not null default gen_random_uuid(),
+    card_id uuid not null,
+    amount numeric(19,2) not null,
+    event_time timestamptz not null,
+    primary key (id, event_time)
+    ) partition by range (event_time);
+create index idx_card_time on fraud_events(card_id, event_time);
+
+do $$
+declare
+    bound timestamptz;
+begin
+    select (greatest(date_trunc('day', now() at time zone 'UTC'),
+                     date_trunc('day', max(event_time) at time zone 'UTC')) + interval '1 day') at time zone 'UTC'
+    into bound
+    from fraud_events_legacy;
+    execute format('alter table fraud_events attach partition fraud_events_legacy for values from (minvalue) to (%L)', bound);
+end $$;
+
+create table fraud_events_default partition of fraud_events default;
@@ -0,0 +1,3 @@
+-- Keys of the account and merchant rules, replayed with the card window at startup.
+-- Nullable: older events and callers that do not send them are simply not counted by those rules.
+alter table fraud_events add column account_id uuid, add column merchant_id varchar(64);
@@ -0,0 +1,131 @@
+package com.areeba.cms.fraudmicroservice.Fraud;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.impl.AmountVelocityRule;
+import com.areeba.cms.fraudmicroservice.service.impl.AmountVelocityWindow;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AmountVelocityRuleTest {
+
+    private static final Duration INTERVAL = Duration.ofHours(1);
+    private static final Duration BUCKET = Duration.ofMinutes(1);
+    private static final Instant START = Instant.parse("2025-09-02T09:00:30Z");
+
+    AmountVelocityRule rule;
+    UUID cardId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        FraudRuleProperties properties = new FraudRuleProperties();
+        properties.getVelocity().setMaxAmount(new BigDecimal("1000.00"));
+        rule = new AmountVelocityRule(INTERVAL, properties);
+    }
+
+    private RecentFraudEvent recorded(String amount, Instant eventTime) {
+        RecentFraudEvent recorded = mock(RecentFraudEvent.class);
+        when(recorded.getCardId()).thenReturn(cardId);
+        when(recorded.getAmount()).thenReturn(new BigDecimal(amount));
+        when(recorded.getEventTime()).thenReturn(eventTime);
+        return recorded;
+    }
+
+    private FraudEvent event(String amount, Instant eventTime) {
+        FraudEvent fraudEvent = new FraudEvent();
+        fraudEvent.setCardId(cardId);
+        fraudEvent.setAmount(new BigDecimal(amount));
+        fraudEvent.setEventTime(eventTime);
+        return fraudEvent;
+    }
+
+    @Test
+    void manySmallAttempts_rejectedOnceSumExceedsLimit() {
+        for (int i = 0; i < 10; i++) {
+            assertFalse(rule.test(event("100.00", START.plus(Duration.ofMinutes(5L * i)))));
+        }
+        // 1000.00 already, inclusive limit reached
+        assertTrue(rule.test(event("0.01", START.plus(Duration.ofMinutes(50)))));
+        // Another card is not affected
+        cardId = UUID.randomUUID();
+        assertFalse(rule.test(event("999.99", START.plus(Duration.ofMinutes(50)))));
+    }
+
+    @Test
+    void oldAttempts_slideOut_afterIntervalPlusOneBucket() {
+        assertFalse(rule.test(event("900.00", START)));
+        // 09:00:30 + 1h: the window reaches back into the 09:00 bucket
+        assertTrue(rule.test(event("200.00", START.plus(INTERVAL))));
+        // 09:00:30 + 1h + 1min: the 09:00 bucket is out, and the rejected 200.00 never counted
+        assertFalse(rule.test(event("1000.00", START.plus(INTERVAL).plus(BUCKET))));
+    }
+
+    @Test
+    void rejectedAttempt_doesNotUseUpTheAllowance() {
+        assertTrue(rule.test(event("1000.01", START)));
+
+        assertFalse(rule.test(event("50.00", START.plusSeconds(10))));
+        assertFalse(rule.test(event("950.00", START.plusSeconds(20))));
+    }
+
+    @Test
+    void hugeAmount_rejectedWithoutOverflow() {
+        assertTrue(rule.test(event("1e30", START)));
+        assertTrue(rule.test(event("92233720368547758.08", START)));
+        assertFalse(rule.test(event("1000.00", START)));
+    }
+
+    @Test
+    void skippedAttempts_ignored_replayedAttempts_countWithinLimit() {
+        rule.skip(event("300.00", START));
+        rule.replay(recorded("600.00", START.plusSeconds(5)));
+        // Over the limit on its own, so it was rejected when recorded
+        rule.replay(recorded("2000.00", START.plusSeconds(10)));
+
+        assertFalse(rule.test(event("400.00", START.plusSeconds(20))));
+        assertTrue(rule.test(event("0.01", START.plusSeconds(30))));
+    }
+
+    @Test
+    void threshold_hotReload() {
+        assertFalse(rule.test(event("500.00", START)));
+        rule.setThreshold("max-amount", new BigDecimal("400.00"));
+
+        assertTrue(rule.test(event("1.00", START)));
+        assertEquals(new BigDecimal("400.00"), rule.thresholds().get("max-amount"));
+        assertThrows(IllegalArgumentException.class, () -> rule.setThreshold("limit", BigDecimal.ONE));
+    }
+
+    @Test
+    void window_ringWrapsAndDropsTooOldEvents() {
+        AmountVelocityWindow window = new AmountVelocityWindow(Duration.ofMinutes(5), BUCKET);
+        window.tryAdd(cardId, START, 100, Long.MAX_VALUE);
+        window.tryAdd(cardId, START.plus(Duration.ofMinutes(3)), 10, Long.MAX_VALUE);
+        // Ring moves past the first bucket, whose slot is reused
+        window.tryAdd(cardId, START.plus(Duration.ofMinutes(7)), 1, Long.MAX_VALUE);
+        // Older than every bucket kept, ignored
+        window.tryAdd(cardId, START, 1000, Long.MAX_VALUE);
+
+        assertEquals(11, window.sum(cardId, START.plus(Duration.ofMinutes(8))));
+        // Out-of-order evaluation inside the ring still sums its own window
+        assertEquals(10, window.sum(cardId, START.plus(Duration.ofMinutes(4))));
+        // Over the limit: nothing added
+        assertFalse(window.tryAdd(cardId, START.plus(Duration.ofMinutes(8)), 90, 100));
+        assertTrue(window.tryAdd(cardId, START.plus(Duration.ofMinutes(8)), 89, 100));
+        assertEquals(100, window.sum(cardId, START.plus(Duration.ofMinutes(8))));
+
+        window.evictExpired(START.plus(Duration.ofMinutes(14)));
+        assertEquals(0, window.size());
+        assertThrows(IllegalArgumentException.class, () -> new AmountVelocityWindow(BUCKET, Duration.ofHours(1)));
+    }
+}
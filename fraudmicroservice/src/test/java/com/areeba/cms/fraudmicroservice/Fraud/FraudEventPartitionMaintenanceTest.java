@@ -0,0 +1,105 @@
+package com.areeba.cms.fraudmicroservice.Fraud;
+
+import com.areeba.cms.fraudmicroservice.config.FraudEventProperties;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudEventPartitionMaintenance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudEventPartitionMaintenanceTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    final LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    private FraudEventPartitionMaintenance maintenance(Duration retention, Duration interval) {
+        FraudEventProperties properties = new FraudEventProperties();
+        properties.getPartitions().setPremake(2);
+        properties.getPartitions().setRetention(retention);
+        return new FraudEventPartitionMaintenance(jdbcTemplate, transactionManager, properties, interval, "fraud");
+    }
+
+    private static OffsetDateTime at(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private static String name(LocalDate day) {
+        return "fraud_events_p" + DateTimeFormatter.BASIC_ISO_DATE.format(day);
+    }
+
+    /**
+     * Grants the advisory lock and lists one partition per given day.
+     */
+    @SuppressWarnings("unchecked")
+    private void existing(LocalDate... days) {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any(Object[].class))).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(inv -> {
+            RowMapper<Object> mapper = inv.getArgument(1);
+            List<Object> result = new ArrayList<>();
+            for (LocalDate day : days) result.add(mapper.mapRow(resultSet(day), result.size()));
+            return result;
+        });
+    }
+
+    private static ResultSet resultSet(LocalDate day) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn(name(day));
+        when(rs.getObject(2, OffsetDateTime.class)).thenReturn(at(day));
+        when(rs.getObject(3, OffsetDateTime.class)).thenReturn(at(day.plusDays(1)));
+        return rs;
+    }
+
+    private List<String> statements() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(sql.capture());
+        return sql.getAllValues();
+    }
+
+    @Test
+    void maintain_createsTodayAndPremadeDays() {
+        existing(today);
+
+        maintenance(null, Duration.ofHours(1)).maintain();
+
+        List<String> creates = statements().stream().filter(s -> s.startsWith("create table")).toList();
+        assertEquals(List.of(name(today.plusDays(1)), name(today.plusDays(2))),
+                creates.stream().map(s -> s.replaceAll("create table fraud\\.(\\w+) .*", "$1")).toList());
+        assertTrue(statements().stream().noneMatch(s -> s.startsWith("drop")));
+    }
+
+    @Test
+    void maintain_retentionNeverShorterThanTheFrequencyWindow() {
+        // 1 day of retention asked, but the window reads 3 days back
+        existing(today.minusDays(5), today.minusDays(3), today.minusDays(1), today);
+
+        maintenance(Duration.ofDays(1), Duration.ofDays(3)).maintain();
+
+        List<String> drops = statements().stream().filter(s -> s.startsWith("drop table")).toList();
+        assertEquals(List.of("drop table fraud." + name(today.minusDays(5))), drops);
+        verify(jdbcTemplate).execute("alter table fraud.fraud_events detach partition fraud." + name(today.minusDays(5)));
+    }
+}
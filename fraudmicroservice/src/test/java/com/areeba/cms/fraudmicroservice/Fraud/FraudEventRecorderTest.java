@@ -0,0 +1,143 @@
+package com.areeba.cms.fraudmicroservice.Fraud;
+
+import com.areeba.cms.fraudmicroservice.config.FraudEventProperties;
+import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudEventRecorder;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class FraudEventRecorderTest {
+
+    @Mock
+    FraudRepository fraudRepository;
+
+    FraudEventProperties properties;
+
+    /** Sizes of the batches handed to the repository, in order. */
+    List<Integer> batches = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudEventProperties();
+        properties.setQueueCapacity(10);
+        properties.setFlushSize(4);
+        properties.setFlushInterval(Duration.ofMillis(50));
+        properties.setOfferTimeout(Duration.ofMillis(10));
+        // The recorder reuses its batch list, so record the size at call time
+        lenient().doAnswer(inv -> batches.add(((List<?>) inv.getArgument(0)).size()))
+                .when(fraudRepository).insertAll(anyList());
+    }
+
+    private static FraudEvent event() {
+        FraudEvent e = new FraudEvent();
+        e.setCardId(UUID.randomUUID());
+        e.setAmount(new BigDecimal("10.00"));
+        e.setEventTime(Instant.now());
+        return e;
+    }
+
+    @Test
+    void writesQueuedEventsInBatchesOfFlushSize() throws Exception {
+        properties.setFlushInterval(Duration.ofHours(1)); // only size or shutdown flushes
+        FraudEventRecorder recorder = new FraudEventRecorder(fraudRepository, properties, new SimpleMeterRegistry());
+        recorder.start();
+        for (int i = 0; i < 10; i++) recorder.record(event());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (batches.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        recorder.stop();
+
+        assertEquals(List.of(4, 4, 2), batches);
+        assertEquals(0, recorder.pending());
+    }
+
+    @Test
+    void partialBatchIsWrittenAfterFlushInterval() throws Exception {
+        FraudEventRecorder recorder = new FraudEventRecorder(fraudRepository, properties, new SimpleMeterRegistry());
+        recorder.start();
+        recorder.record(event());
+
+        Thread.sleep(300);
+        assertEquals(List.of(1), batches);
+        recorder.stop();
+    }
+
+    @Test
+    void stopFlushesPendingEvents() {
+        properties.setFlushInterval(Duration.ofHours(1));
+        FraudEventRecorder recorder = new FraudEventRecorder(fraudRepository, properties, new SimpleMeterRegistry());
+        recorder.start();
+        for (int i = 0; i < 3; i++) recorder.record(event());
+
+        recorder.stop();
+
+        assertEquals(3, batches.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, recorder.pending());
+        assertFalse(recorder.isRunning());
+    }
+
+    @Test
+    void afterStop_callerWritesItsOwnEvent() {
+        FraudEventRecorder recorder = new FraudEventRecorder(fraudRepository, properties, new SimpleMeterRegistry());
+        recorder.start();
+        recorder.stop(); // drainer gone
+
+        // Not running: nothing may be left behind in the queue
+        recorder.record(event());
+        verify(fraudRepository).insertAll(anyList());
+        assertEquals(0, recorder.pending());
+    }
+
+    @Test
+    void recordAll_overflowWrittenByCallerInOneBatch() throws Exception {
+        properties.setQueueCapacity(3);
+        properties.setFlushSize(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // The drainer gets stuck on its first write, so the queue fills up behind it
+        doAnswer(inv -> {
+            if (Thread.currentThread().getName().equals("fraud-event-drainer")) release.await();
+            batches.add(((List<?>) inv.getArgument(0)).size());
+            return null;
+        }).when(fraudRepository).insertAll(anyList());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        FraudEventRecorder recorder = new FraudEventRecorder(fraudRepository, properties, meterRegistry);
+        recorder.start();
+        recorder.record(event());
+        while (recorder.pending() > 0) Thread.sleep(1); // drainer holds it
+
+        recorder.recordAll(List.of(event(), event(), event(), event(), event()));
+
+        assertEquals(List.of(2), batches); // 3 queued, 2 written by the caller at once
+        assertEquals(1, meterRegistry.get("fraud.events.caller.writes").counter().count());
+        release.countDown();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (batches.stream().mapToInt(Integer::intValue).sum() < 6 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        recorder.stop();
+        assertEquals(6, batches.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, recorder.pending());
+    }
+}
@@ -0,0 +1,162 @@
+package com.areeba.cms.fraudmicroservice.Fraud;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.FraudRule;
+import com.areeba.cms.fraudmicroservice.service.impl.AccountFrequencyRule;
+import com.areeba.cms.fraudmicroservice.service.impl.AmountLimitRule;
+import com.areeba.cms.fraudmicroservice.service.impl.CardFrequencyRule;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudRuleChain;
+import com.areeba.cms.fraudmicroservice.service.impl.MerchantLimitRule;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import com.areeba.cms.fraudmicroservice.type.RecentFraudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class FraudRuleChainTest {
+
+    private static final Duration INTERVAL = Duration.ofHours(1);
+    private static final Instant NOW = Instant.parse("2025-09-02T09:00:00Z");
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    FraudRuleProperties properties;
+    AmountLimitRule amountRule;
+    MerchantLimitRule merchantRule;
+    CardFrequencyRule frequencyRule;
+    AccountFrequencyRule accountRule;
+
+    @BeforeEach
+    void setUp() {
+        properties = new FraudRuleProperties();
+        properties.setEnabled(List.of("account", "frequency", "merchant", "amount"));
+        properties.getAccount().setMaxAttempts(3);
+        properties.getMerchant().getLimits().put("m-1", new BigDecimal("100.00"));
+        amountRule = new AmountLimitRule(new BigDecimal("10000.00"));
+        merchantRule = new MerchantLimitRule(properties);
+        frequencyRule = new CardFrequencyRule(INTERVAL, properties);
+        accountRule = new AccountFrequencyRule(INTERVAL, properties);
+    }
+
+    private FraudRuleChain chain() {
+        return new FraudRuleChain(List.of(frequencyRule, accountRule, amountRule, merchantRule), properties, meterRegistry);
+    }
+
+    private static FraudEvent event(UUID cardId, UUID accountId, String merchantId, String amount) {
+        FraudEvent fraudEvent = new FraudEvent();
+        fraudEvent.setCardId(cardId);
+        fraudEvent.setAccountId(accountId);
+        fraudEvent.setMerchantId(merchantId);
+        fraudEvent.setAmount(new BigDecimal(amount));
+        fraudEvent.setEventTime(NOW);
+        return fraudEvent;
+    }
+
+    @Test
+    void compiles_cheapestFirst() {
+        FraudRuleChain chain = chain();
+
+        assertEquals(List.of("amount", "merchant", "frequency", "account"), chain.rules().stream().map(FraudRule::name).toList());
+        assertNull(chain.evaluate(event(UUID.randomUUID(), null, null, "10.00")));
+        assertEquals(1, meterRegistry.get("fraud.rule").tag("rule", "account").timer().count());
+    }
+
+    @Test
+    void compiles_onlyEnabledRules_failsOnUnknownName() {
+        properties.setEnabled(List.of("frequency", "amount"));
+        assertEquals(List.of("amount", "frequency"), chain().rules().stream().map(FraudRule::name).toList());
+        assertNull(chain().rule("merchant"));
+
+        properties.setEnabled(List.of("amount", "velocityy"));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, this::chain);
+        assertTrue(ex.getMessage().contains("velocityy"));
+    }
+
+    @Test
+    void shortCircuits_laterRulesOnlyAccountTheAttempt() {
+        FraudRule cheap = mock(FraudRule.class);
+        FraudRule costly = mock(FraudRule.class);
+        when(cheap.name()).thenReturn("cheap");
+        when(costly.name()).thenReturn("costly");
+        when(cheap.cost()).thenReturn(0);
+        when(costly.cost()).thenReturn(5);
+        when(cheap.test(any())).thenReturn(true);
+        properties.setEnabled(List.of("costly", "cheap"));
+        FraudEvent event = event(UUID.randomUUID(), null, null, "1.00");
+
+        FraudRule rejectedBy = new FraudRuleChain(List.of(costly, cheap), properties, meterRegistry).evaluate(event);
+
+        assertSame(cheap, rejectedBy);
+        verify(costly, never()).test(any());
+        verify(costly).skip(event);
+    }
+
+    @Test
+    void merchantLimit_onlyForListedMerchants_reloadable() {
+        FraudRuleChain chain = chain();
+        UUID cardId = UUID.randomUUID();
+
+        assertSame(merchantRule, chain.evaluate(event(cardId, null, "m-1", "100.01")));
+        assertNull(chain.evaluate(event(cardId, null, "m-2", "100.01")));
+        assertNull(chain.evaluate(event(cardId, null, null, "100.01")));
+
+        merchantRule.setThreshold("m-2", new BigDecimal("50.00"));
+        merchantRule.setThreshold("m-1", null);
+        assertSame(merchantRule, chain.evaluate(event(cardId, null, "m-2", "50.01")));
+        assertNull(chain.evaluate(event(cardId, null, "m-1", "100.01")));
+    }
+
+    @Test
+    void accountAttempts_countAllCards_evenWhenRejectedEarlier() {
+        FraudRuleChain chain = chain();
+        UUID accountId = UUID.randomUUID();
+
+        assertNull(chain.evaluate(event(UUID.randomUUID(), accountId, null, "10.00")));
+        assertSame(amountRule, chain.evaluate(event(UUID.randomUUID(), accountId, null, "20000.00")));
+        assertNull(chain.evaluate(event(UUID.randomUUID(), accountId, null, "10.00")));
+        assertSame(accountRule, chain.evaluate(event(UUID.randomUUID(), accountId, null, "10.00")));
+        assertNull(chain.evaluate(event(UUID.randomUUID(), null, null, "10.00")));
+    }
+
+    @Test
+    void thresholds_hotReloadAndValidation() {
+        FraudRuleChain chain = chain();
+        UUID cardId = UUID.randomUUID();
+        frequencyRule.setThreshold("max-attempts", BigDecimal.ONE);
+        amountRule.setThreshold("limit", new BigDecimal("5.00"));
+
+        assertSame(amountRule, chain.evaluate(event(cardId, null, null, "5.01")));
+        assertSame(frequencyRule, chain.evaluate(event(cardId, null, null, "5.00")));
+        assertEquals(BigDecimal.ONE, frequencyRule.thresholds().get("max-attempts"));
+
+        assertThrows(IllegalArgumentException.class, () -> frequencyRule.setThreshold("max-attempts", BigDecimal.valueOf(17)));
+        assertThrows(IllegalArgumentException.class, () -> frequencyRule.setThreshold("max-attempts", new BigDecimal("2.5")));
+        assertThrows(IllegalArgumentException.class, () -> frequencyRule.setThreshold("limit", BigDecimal.TEN));
+        assertThrows(IllegalArgumentException.class, () -> amountRule.setThreshold("limit", new BigDecimal("-1")));
+        assertEquals(new BigDecimal("5.00"), amountRule.thresholds().get("limit"));
+    }
+
+    @Test
+    void replay_warmsStatefulRules() {
+        FraudRuleChain chain = chain();
+        UUID cardId = UUID.randomUUID();
+        RecentFraudEvent recorded = mock(RecentFraudEvent.class);
+        when(recorded.getCardId()).thenReturn(cardId);
+        when(recorded.getEventTime()).thenReturn(NOW.minusSeconds(60));
+        for (int i = 0; i < 8; i++) {
+            chain.replay(recorded);
+        }
+
+        assertSame(frequencyRule, chain.evaluate(event(cardId, null, null, "1.00")));
+        assertEquals(1, frequencyRule.size());
+    }
+}
@@ -0,0 +1,96 @@
+package com.areeba.cms.fraudmicroservice.Fraud;
+
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.service.impl.AmountVelocityRule;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudRuleChain;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudRuleStateLoader;
+import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays {@code fraud_events} from a real Postgres into the velocity rule.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class FraudRuleStateLoaderTest {
+
+    static EmbeddedPostgres postgres;
+
+    @Autowired
+    FraudRepository fraudRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.flyway.schemas", () -> "cms_fraudmicroservice");
+        registry.add("spring.flyway.default-schema", () -> "cms_fraudmicroservice");
+        registry.add("spring.jpa.properties.hibernate.default_schema", () -> "cms_fraudmicroservice");
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void replay_rebuildsVelocityInEventOrder() {
+        UUID cardId = UUID.randomUUID();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        // Live, with a 1000.00 limit: 600.00 approved, 500.00 rejected, 400.00 approved; 1000.00 counted.
+        // Written newest first, so the heap returns them in reverse unless the query orders them.
+        for (Object[] row : List.of(new Object[]{"400.00", 10}, new Object[]{"500.00", 20}, new Object[]{"600.00", 30})) {
+            jdbcTemplate.update("insert into cms_fraudmicroservice.fraud_events (card_id, amount, event_time) values (?, ?, ?)",
+                    cardId, new BigDecimal((String) row[0]), Timestamp.from(now.minus(Duration.ofMinutes((Integer) row[1]))));
+        }
+        FraudRuleProperties properties = new FraudRuleProperties();
+        properties.setEnabled(List.of("velocity"));
+        properties.getVelocity().setMaxAmount(new BigDecimal("1000.00"));
+        AmountVelocityRule rule = new AmountVelocityRule(Duration.ofHours(1), properties);
+        FraudRuleChain chain = new FraudRuleChain(List.of(rule), properties, new SimpleMeterRegistry());
+
+        new FraudRuleStateLoader(fraudRepository, chain, transactionManager, Duration.ofHours(1)).afterSingletonsInstantiated();
+
+        // Replayed newest first, 400.00 and 500.00 would count instead, leaving 100.00 of room
+        assertTrue(rule.test(event(cardId, "100.00", now)));
+        assertFalse(rule.test(event(cardId, "0.00", now)));
+    }
+
+    private static FraudEvent event(UUID cardId, String amount, Instant eventTime) {
+        FraudEvent fraudEvent = new FraudEvent();
+        fraudEvent.setCardId(cardId);
+        fraudEvent.setAmount(new BigDecimal(amount));
+        fraudEvent.setEventTime(eventTime);
+        return fraudEvent;
+    }
+}
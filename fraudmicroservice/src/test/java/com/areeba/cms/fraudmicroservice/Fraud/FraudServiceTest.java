@@ -1,10 +1,18 @@
 package com.areeba.cms.fraudmicroservice.Fraud;
 
-import com.areeba.cms.fraudmicroservice.repo.FraudRepository;
+import com.areeba.cms.fraudmicroservice.config.FraudRuleProperties;
+import com.areeba.cms.fraudmicroservice.service.impl.AmountLimitRule;
+import com.areeba.cms.fraudmicroservice.service.impl.CardEventWindow;
+import com.areeba.cms.fraudmicroservice.service.impl.CardFrequencyRule;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudEventRecorder;
+import com.areeba.cms.fraudmicroservice.service.impl.FraudRuleChain;
 import com.areeba.cms.fraudmicroservice.service.impl.FraudServiceImpl;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchRequest;
+import com.areeba.cms.fraudmicroservice.type.FraudCheckBatchResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckRequest;
 import com.areeba.cms.fraudmicroservice.type.FraudCheckResponse;
 import com.areeba.cms.fraudmicroservice.type.FraudEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,19 +24,22 @@ import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 public class FraudServiceTest {
 
     @Mock
-    FraudRepository fraudRepository;
+    FraudEventRecorder fraudEventRecorder;
+
+    CardFrequencyRule frequencyRule;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     FraudServiceImpl service;
 
@@ -37,7 +48,26 @@ public class FraudServiceTest {
 
     @BeforeEach
     void setUp() {
-        service = new FraudServiceImpl(fraudRepository, LIMIT, INTERVAL);
+        FraudRuleProperties properties = new FraudRuleProperties();
+        frequencyRule = new CardFrequencyRule(INTERVAL, properties);
+        FraudRuleChain chain = new FraudRuleChain(List.of(frequencyRule, new AmountLimitRule(LIMIT)), properties, meterRegistry);
+        service = new FraudServiceImpl(chain, fraudEventRecorder, meterRegistry);
+    }
+
+    /** Seeds {@code count} prior events for the card inside the window ending at {@code isoTs}. */
+    private void priorEvents(UUID cardId, int count, String isoTs) {
+        Instant end = OffsetDateTime.parse(isoTs).toInstant();
+        for (int i = 1; i <= count; i++) {
+            frequencyRule.skip(event(cardId, end.minus(INTERVAL).plusSeconds(i)));
+        }
+    }
+
+    private static FraudEvent event(UUID cardId, Instant eventTime) {
+        FraudEvent fraudEvent = new FraudEvent();
+        fraudEvent.setCardId(cardId);
+        fraudEvent.setAmount(BigDecimal.ONE);
+        fraudEvent.setEventTime(eventTime);
+        return fraudEvent;
     }
 
     private FraudCheckRequest req(UUID cardId, BigDecimal amount, String isoTs) {
@@ -52,23 +82,23 @@ public class FraudServiceTest {
     void approve_whenAmountBelowLimit_andFrequencyUnderThreshold() {
         UUID cardId = UUID.randomUUID();
         var request = req(cardId, new BigDecimal("9999.99"), "2025-09-02T09:00:00Z");
-        // Count for last hour = 3 (< 8)
-        when(fraudRepository.countForCardSince(eq(cardId), any(Instant.class))).thenReturn(3L);
-        when(fraudRepository.save(any(FraudEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        // Count for last hour = 3 (< 8), plus an older event just outside the window
+        priorEvents(cardId, 3, "2025-09-02T09:00:00Z");
+        frequencyRule.skip(event(cardId, request.getTimestamp().toInstant().minus(INTERVAL).minusMillis(1)));
 
         FraudCheckResponse resp = service.evaluateTransactionService(request);
 
         assertTrue(resp.getApproved());
         assertEquals("OK", resp.getReason());
 
-        // Verify "since" = timestamp - interval
-        ArgumentCaptor<Instant> sinceCap = ArgumentCaptor.forClass(Instant.class);
-        verify(fraudRepository).countForCardSince(eq(cardId), sinceCap.capture());
-        assertEquals(request.getTimestamp().toInstant().minus(INTERVAL), sinceCap.getValue());
+        // Verify the attempt itself joined the window ("since" = timestamp - interval, inclusive)
+        frequencyRule.setThreshold("max-attempts", new BigDecimal(5));
+        assertFalse(frequencyRule.test(event(cardId, request.getTimestamp().toInstant())));  // 3 prior + the attempt
+        assertTrue(frequencyRule.test(event(cardId, request.getTimestamp().toInstant())));   // + the check above
 
-        // Verify event saved with right fields
+        // Verify event recorded with right fields
         ArgumentCaptor<FraudEvent> eventCap = ArgumentCaptor.forClass(FraudEvent.class);
-        verify(fraudRepository).save(eventCap.capture());
+        verify(fraudEventRecorder).record(eventCap.capture());
         FraudEvent saved = eventCap.getValue();
         assertEquals(cardId, saved.getCardId());
         assertEquals(0, saved.getAmount().compareTo(new BigDecimal("9999.99")));
@@ -79,15 +109,12 @@ public class FraudServiceTest {
     void reject_whenAmountExceedsLimit_reasonAmount() {
         UUID cardId = UUID.randomUUID();
         var request = req(cardId, new BigDecimal("15000.00"), "2025-09-02T10:00:00Z");
-        when(fraudRepository.countForCardSince(eq(cardId), any(Instant.class))).thenReturn(0L);
-        when(fraudRepository.save(any(FraudEvent.class))).thenAnswer(inv -> inv.getArgument(0));
 
         FraudCheckResponse resp = service.evaluateTransactionService(request);
 
         assertFalse(resp.getApproved());
         assertEquals("AMOUNT_EXCEEDS_LIMIT", resp.getReason());
-        verify(fraudRepository).countForCardSince(eq(cardId), any(Instant.class));
-        verify(fraudRepository).save(any(FraudEvent.class));
+        verify(fraudEventRecorder).record(any(FraudEvent.class));
     }
 
     @Test
@@ -95,27 +122,81 @@ public class FraudServiceTest {
         UUID cardId = UUID.randomUUID();
         var request = req(cardId, new BigDecimal("50.00"), "2025-09-02T11:00:00Z");
         // count >= 8 -> reject by frequency
-        when(fraudRepository.countForCardSince(eq(cardId), any(Instant.class))).thenReturn(8L);
-        when(fraudRepository.save(any(FraudEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        priorEvents(cardId, 8, "2025-09-02T11:00:00Z");
 
         FraudCheckResponse resp = service.evaluateTransactionService(request);
 
         assertFalse(resp.getApproved());
         assertEquals("FREQUENCY_EXCEEDS_LIMIT", resp.getReason());
-        verify(fraudRepository).countForCardSince(eq(cardId), any(Instant.class));
-        verify(fraudRepository).save(any(FraudEvent.class));
+        verify(fraudEventRecorder).record(any(FraudEvent.class));
     }
 
     @Test
     void edge_amountEqualToLimit_isApproved() {
         UUID cardId = UUID.randomUUID();
         var request = req(cardId, new BigDecimal("10000.00"), "2025-09-02T13:00:00Z");
-        when(fraudRepository.countForCardSince(eq(cardId), any(Instant.class))).thenReturn(7L);
-        when(fraudRepository.save(any(FraudEvent.class))).thenAnswer(inv -> inv.getArgument(0));
+        priorEvents(cardId, 7, "2025-09-02T13:00:00Z");
 
         FraudCheckResponse resp = service.evaluateTransactionService(request);
 
         assertTrue(resp.getApproved());
         assertEquals("OK", resp.getReason());
     }
+
+    @Test
+    void frequency_eighthAttemptApproved_ninthRejected() {
+        UUID cardId = UUID.randomUUID();
+        OffsetDateTime start = OffsetDateTime.parse("2025-09-02T14:00:00Z");
+        for (int i = 0; i < 8; i++) {
+            FraudCheckRequest r = req(cardId, new BigDecimal("10.00"), start.plusMinutes(i).toString());
+            assertTrue(service.evaluateTransactionService(r).getApproved());
+        }
+        FraudCheckResponse ninth = service.evaluateTransactionService(req(cardId, new BigDecimal("10.00"), start.plusMinutes(8).toString()));
+        assertEquals("FREQUENCY_EXCEEDS_LIMIT", ninth.getReason());
+
+        // An hour after the first attempts they slide out of the window again
+        FraudCheckResponse later = service.evaluateTransactionService(req(cardId, new BigDecimal("10.00"), start.plusMinutes(66).toString()));
+        assertTrue(later.getApproved());
+        assertEquals(9, meterRegistry.get("fraud.decisions").tag("reason", "OK").counter().count());
+        assertEquals(1, meterRegistry.get("fraud.decisions").tag("reason", "FREQUENCY_EXCEEDS_LIMIT").counter().count());
+        assertEquals(10, meterRegistry.get("fraud.rule").tag("rule", "frequency").timer().count());
+    }
+
+    @Test
+    void window_evictsIdleCards() {
+        CardEventWindow cardEventWindow = new CardEventWindow(INTERVAL, 8);
+        UUID idle = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        Instant now = Instant.parse("2025-09-02T15:00:00Z");
+        cardEventWindow.record(idle, now.minus(INTERVAL).minusSeconds(1));
+        cardEventWindow.record(active, now.minusSeconds(10));
+
+        cardEventWindow.evictExpired(now);
+
+        assertEquals(1, cardEventWindow.size());
+        assertEquals(1, cardEventWindow.countAndRecord(active, now));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batch_countsEarlierItemsOfSameCard() {
+        UUID busy = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        priorEvents(busy, 6, "2025-09-02T16:00:00Z");
+        FraudCheckBatchRequest batch = new FraudCheckBatchRequest();
+        batch.addRequestsItem(req(busy, new BigDecimal("10.00"), "2025-09-02T16:00:00Z"));     // 6 prior -> OK
+        batch.addRequestsItem(req(other, new BigDecimal("20000.00"), "2025-09-02T16:00:00Z")); // amount
+        batch.addRequestsItem(req(busy, new BigDecimal("10.00"), "2025-09-02T16:00:00Z"));     // 7 prior -> OK
+        batch.addRequestsItem(req(busy, new BigDecimal("10.00"), "2025-09-02T16:00:00Z"));     // 8 prior -> frequency
+        batch.addRequestsItem(req(other, new BigDecimal("10.00"), "2025-09-02T16:00:00Z"));    // 1 prior -> OK
+
+        FraudCheckBatchResponse resp = service.evaluateTransactionBatchService(batch);
+
+        assertEquals(List.of("OK", "AMOUNT_EXCEEDS_LIMIT", "OK", "FREQUENCY_EXCEEDS_LIMIT", "OK"),
+                resp.getResults().stream().map(FraudCheckResponse::getReason).toList());
+        ArgumentCaptor<List<FraudEvent>> eventsCap = ArgumentCaptor.forClass(List.class);
+        verify(fraudEventRecorder).recordAll(eventsCap.capture());
+        assertEquals(5, eventsCap.getValue().size());
+        assertEquals(other, eventsCap.getValue().get(1).getCardId());
+    }
 }
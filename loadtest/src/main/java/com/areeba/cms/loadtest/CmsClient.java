@@ -0,0 +1,99 @@
+package com.areeba.cms.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Minimal HTTP client for the CMS API: seeding calls plus one request per {@link Operation}.
+ */
+final class CmsClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    CmsClient(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    UUID createAccount(BigDecimal balance) throws IOException, InterruptedException {
+        return id(post("/accounts", Map.of("status", "ACTIVE", "balance", balance)));
+    }
+
+    UUID createCard(UUID accountId, String cardNumber, LocalDate expiry) throws IOException, InterruptedException {
+        return id(post("/cards", Map.of("accountId", accountId, "cardNumber", cardNumber, "expiry", expiry.toString())));
+    }
+
+    void activateCard(UUID cardId) throws IOException, InterruptedException {
+        post("/cards/" + cardId + "/activate", null);
+    }
+
+    /**
+     * Builds the request for one operation on the given account and card.
+     * <p>Transactions are small debits and credits in equal parts, so balances stay roughly where they were seeded.</p>
+     */
+    HttpRequest request(Operation operation, UUID accountId, UUID cardId, SplittableRandom random) {
+        return switch (operation) {
+            case TRANSACTION -> {
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(100, 10_000), 2);
+                String type = random.nextBoolean() ? "D" : "C";
+                yield json("/transactions", "{\"accountId\":\"" + accountId + "\",\"cardId\":\"" + cardId
+                        + "\",\"transactionAmount\":" + amount + ",\"transactionType\":\"" + type + "\"}");
+            }
+            case GET_ACCOUNT -> get("/accounts/" + accountId);
+            case GET_CARD -> get("/cards/" + cardId);
+            case ACCOUNT_CARD_IDS -> get("/accounts/" + accountId + "/cardIds");
+            case CARD_IDS -> get("/cards/ids?page=" + random.nextInt(10));
+        };
+    }
+
+    /**
+     * Sends a request and discards the body.
+     *
+     * @return HTTP status code
+     */
+    int send(HttpRequest request) throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        HttpRequest request = body == null
+                ? HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(HttpRequest.BodyPublishers.noBody()).build()
+                : json(path, objectMapper.writeValueAsString(body));
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("POST " + path + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body().isEmpty() ? null : objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest json(String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private static UUID id(JsonNode response) {
+        return UUID.fromString(response.get("id").asText());
+    }
+}
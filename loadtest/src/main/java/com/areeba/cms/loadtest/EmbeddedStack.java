@@ -0,0 +1,109 @@
+package com.areeba.cms.loadtest;
+
+import com.areeba.cms.cmsmircoservice.Application;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+/**
+ * Self-contained CMS for load testing: embedded Postgres, a stubbed fraud service that approves
+ * everything after {@code --fraud-latency}, and the CMS application started in-process against both.
+ */
+final class EmbeddedStack implements AutoCloseable {
+
+    private static final String APPROVED = "{\"approved\":true,\"reason\":\"OK\"}";
+
+    private final EmbeddedPostgres postgres;
+    private final HttpServer fraud;
+    private final ConfigurableApplicationContext cms;
+
+    private EmbeddedStack(EmbeddedPostgres postgres, HttpServer fraud, ConfigurableApplicationContext cms) {
+        this.postgres = postgres;
+        this.fraud = fraud;
+        this.cms = cms;
+    }
+
+    static EmbeddedStack start(LoadTestOptions options) throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "300")
+                .start();
+        HttpServer fraud = startFraudStub(options.fraudLatency);
+
+        List<String> args = new ArrayList<>(List.of(
+                "--SPRING_DATASOURCE_URL=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--SPRING_DATASOURCE_USERNAME=postgres",
+                "--SPRING_DATASOURCE_PASSWORD=postgres",
+                "--SPRING_FLYWAY_SCHEMAS=cms",
+                "--SPRING_FLYWAY_DEFAULT_SCHEMA=cms",
+                "--CMS_SERVER_SERVLET_CONTEXT_PATH=/cms/v1",
+                "--MANAGEMENT_SERVER_PORT=0",
+                "--CMS_AREEBA_CRYPTO_PASSWORD=loadtest",
+                "--CMS_AREEBA_CRYPTO_SALT_HEX=3f1c7a5d2b9e44f0aa11bb22cc33dd44",
+                "--CMS_AREEBA_CRYPTO_INDEX_KEY=loadtest-index",
+                "--FRAUD_URL=http://localhost:" + fraud.getAddress().getPort(),
+                "--server.port=0",
+                "--logging.level.root=WARN",
+                "--logging.level.com.areeba.cms.cmsmircoservice=WARN"));
+        // Options given on the command line win over the defaults above
+        args.addAll(options.appArgs);
+        ConfigurableApplicationContext cms = SpringApplication.run(Application.class, args.toArray(String[]::new));
+        return new EmbeddedStack(postgres, fraud, cms);
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + cms.getEnvironment().getProperty("local.server.port") + "/cms/v1";
+    }
+
+    @Override
+    public void close() throws IOException {
+        cms.close();
+        fraud.stop(0);
+        postgres.close();
+    }
+
+    /**
+     * Answers {@code /evaluate} and {@code /evaluate/batch} with approvals.
+     */
+    private static HttpServer startFraudStub(Duration latency) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/evaluate", exchange -> {
+            byte[] request = exchange.getRequestBody().readAllBytes();
+            String body = APPROVED;
+            if (exchange.getRequestURI().getPath().endsWith("/batch")) {
+                int count = objectMapper.readTree(request).get("requests").size();
+                body = "{\"results\":[" + String.join(",", Collections.nCopies(count, APPROVED)) + "]}";
+            }
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, body);
+        });
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.areeba.cms.loadtest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Accounts and active cards created through the API before the run, and the choice of which
+ * account a request goes to.
+ * <p>With hot-account skew, {@code hotTraffic} of the requests go to the first {@code hotAccounts}
+ * share of the accounts and the rest are spread uniformly over all of them.</p>
+ */
+final class Fixture {
+
+    private static final BigDecimal BALANCE = new BigDecimal("1000000.00");
+
+    final UUID[] accountIds;
+    final UUID[][] cardIds;
+    private final int hotCount;
+    private final double hotTraffic;
+
+    private Fixture(UUID[] accountIds, UUID[][] cardIds, LoadTestOptions options) {
+        this.accountIds = accountIds;
+        this.cardIds = cardIds;
+        this.hotCount = Math.max(1, (int) Math.round(accountIds.length * options.hotAccounts));
+        this.hotTraffic = options.hotTraffic;
+    }
+
+    /**
+     * Seeds {@code accounts} active accounts and {@code cards} active cards, using {@code threads} parallel clients.
+     */
+    static Fixture seed(CmsClient client, LoadTestOptions options) throws Exception {
+        UUID[] accountIds = new UUID[options.accounts];
+        UUID[][] cardIds = new UUID[options.accounts][];
+        for (int a = 0; a < options.accounts; a++) {
+            cardIds[a] = new UUID[options.cards / options.accounts + (a < options.cards % options.accounts ? 1 : 0)];
+        }
+        SplittableRandom random = new SplittableRandom(options.seed);
+        String[] cardNumbers = new String[options.cards];
+        for (int c = 0; c < options.cards; c++) {
+            cardNumbers[c] = "4" + String.format("%015d", random.nextLong(1_000_000_000_000_000L));
+        }
+        LocalDate expiry = LocalDate.now().plusYears(3);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(options.threads)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int a = 0; a < options.accounts; a++) {
+                int account = a;
+                futures.add(executor.submit(() -> {
+                    accountIds[account] = client.createAccount(BALANCE);
+                    for (int i = 0; i < cardIds[account].length; i++) {
+                        UUID cardId = client.createCard(accountIds[account], cardNumbers[i * options.accounts + account], expiry);
+                        client.activateCard(cardId);
+                        cardIds[account][i] = cardId;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return new Fixture(accountIds, cardIds, options);
+    }
+
+    int pickAccount(SplittableRandom random) {
+        if (hotTraffic > 0 && random.nextDouble() < hotTraffic) {
+            return random.nextInt(hotCount);
+        }
+        return random.nextInt(accountIds.length);
+    }
+
+    UUID pickCard(int account, SplittableRandom random) {
+        UUID[] cards = cardIds[account];
+        return cards[random.nextInt(cards.length)];
+    }
+}
@@ -0,0 +1,94 @@
+package com.areeba.cms.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-thread record of every measured request: latency and outcome per {@link Operation}.
+ * <p>Each client thread owns one recorder, so recording needs no synchronization; the recorders
+ * are merged once the run is over.</p>
+ */
+final class LatencyRecorder {
+
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+
+    void record(Operation operation, long nanos, int status) {
+        samples.computeIfAbsent(operation, o -> new Samples()).add(nanos, status);
+    }
+
+    /**
+     * Merges the recorders of all threads into one result per operation.
+     *
+     * @param recorders    recorders of all client threads
+     * @param measuredNanos length of the measured period
+     * @return results in {@link Operation} order
+     */
+    static Map<Operation, EndpointResult> merge(List<LatencyRecorder> recorders, long measuredNanos) {
+        Map<Operation, EndpointResult> results = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            Samples merged = new Samples();
+            for (LatencyRecorder recorder : recorders) {
+                Samples samples = recorder.samples.get(operation);
+                if (samples != null) merged.addAll(samples);
+            }
+            if (merged.size > 0) {
+                results.put(operation, merged.toResult(operation, measuredNanos));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Summary of one endpoint; latencies in milliseconds.
+     */
+    record EndpointResult(String endpoint, long requests, long ok, long clientErrors, long serverErrors,
+                          double throughput, double p50, double p90, double p99, double max) {
+    }
+
+    private static final class Samples {
+
+        private long[] nanos = new long[1024];
+        private int size;
+        private long ok;
+        private long clientErrors;
+        private long serverErrors;
+
+        void add(long latency, int status) {
+            if (size == nanos.length) nanos = Arrays.copyOf(nanos, size * 2);
+            nanos[size++] = latency;
+            // Status 0: no response (I/O error or timeout)
+            if (status / 100 == 2) ok++;
+            else if (status / 100 == 4) clientErrors++;
+            else serverErrors++;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > nanos.length) nanos = Arrays.copyOf(nanos, size + other.size);
+            System.arraycopy(other.nanos, 0, nanos, size, other.size);
+            size += other.size;
+            ok += other.ok;
+            clientErrors += other.clientErrors;
+            serverErrors += other.serverErrors;
+        }
+
+        EndpointResult toResult(Operation operation, long measuredNanos) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new EndpointResult(operation.label, size, ok, clientErrors, serverErrors,
+                    size / (measuredNanos / 1e9),
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)), millis(sorted[size - 1]));
+        }
+
+        /** Nearest-rank percentile. */
+        private static long percentile(long[] sorted, double p) {
+            return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / 1_000.0) / 1_000.0;
+        }
+    }
+}
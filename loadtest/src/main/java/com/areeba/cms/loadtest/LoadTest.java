@@ -0,0 +1,151 @@
+package com.areeba.cms.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Closed-loop load test of the CMS API.
+ * <p>Seeds accounts and active cards through the API, then runs {@code --threads} clients that each
+ * send a request picked from {@code --mix} as soon as the previous one returns, for {@code --warmup}
+ * plus {@code --duration}. Only the second period is measured; throughput and p50/p90/p99/max latency
+ * are reported per endpoint, and written as JSON with {@code --out}.</p>
+ * <p>Runs against {@code --target} when given, otherwise against an {@link EmbeddedStack}.</p>
+ *
+ * <pre>{@code
+ *   java -jar loadtest/target/loadtest.jar --accounts=1000 --cards=4000 --threads=64 \
+ *       --hot-accounts=0.01 --hot-traffic=0.5 --cms.areeba.transactions.apply-mode=GUARDED
+ * }</pre>
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        if (options.target != null) {
+            run(options, options.target);
+            return;
+        }
+        int status = 0;
+        try (EmbeddedStack stack = EmbeddedStack.start(options)) {
+            run(options, stack.baseUrl());
+        } catch (Exception e) {
+            e.printStackTrace();
+            status = 1;
+        }
+        // The embedded application and fraud stub leave non-daemon threads behind
+        System.exit(status);
+    }
+
+    private static void run(LoadTestOptions options, String baseUrl) throws Exception {
+        CmsClient client = new CmsClient(baseUrl);
+        System.out.printf("Seeding %d accounts and %d cards on %s%n", options.accounts, options.cards, baseUrl);
+        Fixture fixture = Fixture.seed(client, options);
+
+        Operation[] schedule = schedule(options.mix);
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup.toNanos();
+        long end = measureFrom + options.duration.toNanos();
+        System.out.printf("Running %d threads for %s (+%s warm-up)%n", options.threads, options.duration, options.warmup);
+
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < options.threads; t++) {
+            LatencyRecorder recorder = new LatencyRecorder();
+            SplittableRandom random = new SplittableRandom(options.seed + t);
+            recorders.add(recorder);
+            threads.add(Thread.ofPlatform().name("loadtest-" + t).start(
+                    () -> drive(client, fixture, schedule, random, recorder, measureFrom, end)));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Map<Operation, LatencyRecorder.EndpointResult> results = LatencyRecorder.merge(recorders, options.duration.toNanos());
+        print(results);
+        if (options.out != null) {
+            write(options, results);
+        }
+    }
+
+    private static void drive(CmsClient client, Fixture fixture, Operation[] schedule, SplittableRandom random,
+                              LatencyRecorder recorder, long measureFrom, long end) {
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = schedule[random.nextInt(schedule.length)];
+            int account = fixture.pickAccount(random);
+            UUID cardId = fixture.pickCard(account, random);
+            HttpRequest request = client.request(operation, fixture.accountIds[account], cardId, random);
+            int status;
+            try {
+                status = client.send(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                status = 0;
+            }
+            if (now >= measureFrom) {
+                recorder.record(operation, System.nanoTime() - now, status);
+            }
+        }
+    }
+
+    /**
+     * Expands the weights into a lookup table, so picking an operation is one random index.
+     */
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) schedule.add(operation);
+        });
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no operation with a positive weight");
+        }
+        return schedule.toArray(Operation[]::new);
+    }
+
+    private static void print(Map<Operation, LatencyRecorder.EndpointResult> results) {
+        System.out.printf("%n%-28s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "2xx", "4xx", "5xx/io", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (LatencyRecorder.EndpointResult r : results.values()) {
+            System.out.printf("%-28s %9d %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requests(), r.ok(), r.clientErrors(), r.serverErrors(),
+                    r.throughput(), r.p50(), r.p90(), r.p99(), r.max());
+        }
+    }
+
+    private static void write(LoadTestOptions options, Map<Operation, LatencyRecorder.EndpointResult> results) throws Exception {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("target", options.target == null ? "embedded" : options.target);
+        settings.put("accounts", options.accounts);
+        settings.put("cards", options.cards);
+        settings.put("threads", options.threads);
+        settings.put("warmup", options.warmup.toString());
+        settings.put("duration", options.duration.toString());
+        settings.put("hotAccounts", options.hotAccounts);
+        settings.put("hotTraffic", options.hotTraffic);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        options.mix.forEach((operation, weight) -> mix.put(operation.key, weight));
+        settings.put("mix", mix);
+        settings.put("fraudLatency", options.fraudLatency.toString());
+        settings.put("seed", options.seed);
+        settings.put("appArgs", options.appArgs);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("results", results.values());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(options.out), report);
+        System.out.println("Results written to " + options.out);
+    }
+}
@@ -0,0 +1,103 @@
+package com.areeba.cms.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line options of {@link LoadTest}, all given as {@code --name=value}.
+ * <p>Options that are not listed here are passed on to the CMS started in embedded mode, so any
+ * application property can be overridden, e.g. {@code --cms.areeba.transactions.apply-mode=GUARDED}.</p>
+ */
+final class LoadTestOptions {
+
+    /** Base URL of a running CMS, e.g. {@code http://localhost:8080/cms/v1}; embedded mode when absent. */
+    String target;
+
+    /** Number of accounts to seed. */
+    int accounts = 100;
+
+    /** Number of cards to seed, spread round-robin over the accounts. */
+    int cards = 400;
+
+    /** Number of concurrent client threads, each sending its next request as soon as the previous returns. */
+    int threads = 32;
+
+    /** Traffic sent before measuring starts. */
+    Duration warmup = Duration.ofSeconds(10);
+
+    /** Measured period. */
+    Duration duration = Duration.ofSeconds(60);
+
+    /** Share of the accounts that are hot, e.g. {@code 0.01}. */
+    double hotAccounts = 0.0;
+
+    /** Share of the requests sent to hot accounts, e.g. {@code 0.8}; 0 means uniform traffic. */
+    double hotTraffic = 0.0;
+
+    /** Relative weight of each operation. */
+    Map<Operation, Integer> mix = new EnumMap<>(Map.of(
+            Operation.TRANSACTION, 60,
+            Operation.GET_ACCOUNT, 10,
+            Operation.GET_CARD, 15,
+            Operation.ACCOUNT_CARD_IDS, 10,
+            Operation.CARD_IDS, 5));
+
+    /** Latency of the stubbed fraud service (embedded mode only). */
+    Duration fraudLatency = Duration.ofMillis(5);
+
+    /** Seed for card numbers and traffic, so two runs send the same sequence of requests. */
+    long seed = 42;
+
+    /** Optional file the results are written to as JSON. */
+    String out;
+
+    /** Arguments passed on to the embedded CMS. */
+    final List<String> appArgs = new ArrayList<>();
+
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "target" -> options.target = value;
+                case "accounts" -> options.accounts = Integer.parseInt(value);
+                case "cards" -> options.cards = Integer.parseInt(value);
+                case "threads" -> options.threads = Integer.parseInt(value);
+                case "warmup" -> options.warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> options.duration = DurationStyle.detectAndParse(value);
+                case "hot-accounts" -> options.hotAccounts = Double.parseDouble(value);
+                case "hot-traffic" -> options.hotTraffic = Double.parseDouble(value);
+                case "mix" -> options.mix = parseMix(value);
+                case "fraud-latency" -> options.fraudLatency = DurationStyle.detectAndParse(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                case "out" -> options.out = value;
+                default -> options.appArgs.add(arg);
+            }
+        }
+        if (options.accounts < 1 || options.cards < options.accounts) {
+            throw new IllegalArgumentException("Need at least one account and one card per account");
+        }
+        return options;
+    }
+
+    /**
+     * Parses {@code transaction:60,getCard:20,...}; operations left out get weight 0.
+     */
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] keyWeight = part.trim().split(":");
+            mix.put(Operation.fromKey(keyWeight[0]), Integer.parseInt(keyWeight[1]));
+        }
+        return mix;
+    }
+}
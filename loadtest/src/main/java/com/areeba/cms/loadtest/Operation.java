@@ -0,0 +1,28 @@
+package com.areeba.cms.loadtest;
+
+/**
+ * CMS endpoints driven by the load test, with the key used in {@code --mix} and the label used in the report.
+ */
+enum Operation {
+
+    TRANSACTION("transaction", "POST /transactions"),
+    GET_ACCOUNT("getAccount", "GET /accounts/{id}"),
+    GET_CARD("getCard", "GET /cards/{id}"),
+    ACCOUNT_CARD_IDS("accountCardIds", "GET /accounts/{id}/cardIds"),
+    CARD_IDS("cardIds", "GET /cards/ids");
+
+    final String key;
+    final String label;
+
+    Operation(String key, String label) {
+        this.key = key;
+        this.label = label;
+    }
+
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) return operation;
+        }
+        throw new IllegalArgumentException("Unknown operation in --mix: " + key);
+    }
+}